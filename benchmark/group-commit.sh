@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Пропускная способность POST /api/users/{id}/subscriptions без group commit и с разными окнами.
+# Гоняет ./gradlew loadTest (embedded Postgres или LOADTEST_JDBC_URL) со смесью только из addSubscription.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+WINDOWS=${WINDOWS:-"off PT0.0002S PT0.0005S PT0.001S PT0.002S PT0.005S"}
+MAX_BATCH=${MAX_BATCH:-256}
+CLIENTS=${CLIENTS:-256}
+USERS=${USERS:-100000}
+DURATION=${DURATION:-PT60S}
+RESULTS=${RESULTS:-benchmark/results/$(date +%Y%m%d-%H%M%S)-group-commit}
+
+mkdir -p "$RESULTS"
+
+for window in $WINDOWS; do
+  if [ "$window" = off ]; then
+    app="subscriptions.group-commit.enabled=false"
+  else
+    app="subscriptions.group-commit.enabled=true,subscriptions.group-commit.window=$window,subscriptions.group-commit.max-batch=$MAX_BATCH"
+  fi
+  ./gradlew -q loadTest \
+    -Ploadtest.mix=addSubscription=100 \
+    -Ploadtest.clients="$CLIENTS" \
+    -Ploadtest.users="$USERS" \
+    -Ploadtest.duration="$DURATION" \
+    -Ploadtest.app="$app" \
+    ${LOADTEST_JDBC_URL:+-Ploadtest.jdbcUrl="$LOADTEST_JDBC_URL"} \
+    -Ploadtest.report="$PWD/$RESULTS/$window.json" \
+    > "$RESULTS/$window.log" 2>&1 || echo "$window: loadTest reported violations, see $RESULTS/$window.log" >&2
+done
+
+{
+  echo "| window | requests/sec | p50, ms | p99, ms | max, ms |"
+  echo "|---|---|---|---|---|"
+  for window in $WINDOWS; do
+    python3 - "$RESULTS/$window.json" "$window" <<'PY'
+import json, sys
+report = json.load(open(sys.argv[1]))
+add = report["endpoints"][0]
+print(f"| {sys.argv[2]} | {add['throughputPerSecond']:.0f} | {add['p50Ms']} | {add['p99Ms']} | {add['maxMs']} |")
+PY
+  done
+  echo
+  echo "$CLIENTS клиентов, $USERS пользователей, max-batch $MAX_BATCH, $DURATION на окно"
+} > "$RESULTS/summary.md"
+
+cat "$RESULTS/summary.md"
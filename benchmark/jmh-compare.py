@@ -0,0 +1,47 @@
+#!/usr/bin/env python3
+# Сравнивает свежий прогон JMH с закоммиченным baseline (время и gc.alloc.rate.norm).
+# Использование: benchmark/jmh-compare.py [baseline.json] [results.json] [порог, %]
+import json
+import os
+import sys
+
+baseline_path = sys.argv[1] if len(sys.argv) > 1 else "benchmark/jmh/baseline.json"
+current_path = sys.argv[2] if len(sys.argv) > 2 else "build/results/jmh/results.json"
+threshold = float(sys.argv[3]) if len(sys.argv) > 3 else 10.0
+
+
+def load(path):
+    with open(path) as f:
+        runs = json.load(f)
+    result = {}
+    for run in runs:
+        params = ",".join(f"{k}={v}" for k, v in sorted(run.get("params", {}).items()))
+        key = run["benchmark"].rsplit(".", 2)[-2] + "." + run["benchmark"].rsplit(".", 1)[-1]
+        if params:
+            key += f" [{params}]"
+        alloc = run.get("secondaryMetrics", {}).get("gc.alloc.rate.norm", {}).get("score")
+        result[key] = (run["primaryMetric"]["score"], run["primaryMetric"]["scoreUnit"], alloc)
+    return result
+
+
+if not os.path.exists(baseline_path):
+    sys.exit(f"{baseline_path} не найден, сначала снимите baseline: ./gradlew jmhBaseline")
+baseline = load(baseline_path)
+current = load(current_path)
+regressions = 0
+print(f"{'benchmark':60} {'baseline':>12} {'current':>12} {'diff':>8} {'B/op':>10} {'B/op now':>10}")
+for key in sorted(current):
+    score, unit, alloc = current[key]
+    if key not in baseline:
+        print(f"{key:60} {'-':>12} {score:12.3f} {'new':>8}")
+        continue
+    base_score, _, base_alloc = baseline[key]
+    diff = (score - base_score) / base_score * 100 if base_score else 0.0
+    alloc_diff = ((alloc - base_alloc) / base_alloc * 100) if alloc is not None and base_alloc else 0.0
+    flag = ""
+    if diff > threshold or alloc_diff > threshold:
+        flag = "  <-- regression"
+        regressions += 1
+    print(f"{key:60} {base_score:12.3f} {score:12.3f} {diff:7.1f}% "
+          f"{(base_alloc or 0):10.1f} {(alloc or 0):10.1f}{flag}")
+sys.exit(1 if regressions else 0)
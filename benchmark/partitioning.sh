@@ -0,0 +1,148 @@
+#!/usr/bin/env bash
+# Задержки запросов DAO к subscriptions: обычная таблица против hash(user_id)-секционированной.
+# Нужны: запущенный Postgres из secret_information.env, psql, pgbench.
+# Данные создаются в схемах bench_plain и bench_hash и удаляются в конце (KEEP=1 — оставить).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+ROWS=${ROWS:-10000000}
+USERS=${USERS:-1000000}
+PARTITIONS=${PARTITIONS:-16}
+CLIENTS=${CLIENTS:-16}
+JOBS=${JOBS:-4}
+DURATION=${DURATION:-60}
+RESULTS=${RESULTS:-benchmark/results/$(date +%Y%m%d-%H%M%S)-partitioning}
+
+set -a
+. ./secret_information.env
+set +a
+
+export PGHOST=${datasource_url%%:*}
+export PGPORT=$([[ "$datasource_url" == *:* ]] && echo "${datasource_url##*:}" || echo 5432)
+export PGDATABASE=$datasource_database_name
+export PGUSER=$datasource_username
+export PGPASSWORD=$datasource_password
+
+mkdir -p "$RESULTS"
+
+create_schema() {
+  local schema=$1 partition_clause=$2 primary_key=$3
+  psql -v ON_ERROR_STOP=1 -q <<SQL
+DROP SCHEMA IF EXISTS $schema CASCADE;
+CREATE SCHEMA $schema;
+SET search_path = $schema;
+CREATE TABLE users
+(
+    id                  UUID PRIMARY KEY,
+    user_name           TEXT,
+    email               TEXT UNIQUE,
+    registration_time   TIMESTAMP,
+    subscription_amount INTEGER
+);
+CREATE TABLE subscriptions
+(
+    id           SERIAL,
+    user_id      UUID NOT NULL REFERENCES users (id),
+    service_name TEXT,
+    start_time   TIMESTAMP,
+    end_time     TIMESTAMP,
+    PRIMARY KEY ($primary_key)
+) $partition_clause;
+DO \$\$
+    BEGIN
+        IF '$partition_clause' <> '' THEN
+            FOR i IN 0..$PARTITIONS - 1
+                LOOP
+                    EXECUTE format('CREATE TABLE subscriptions_p%s PARTITION OF subscriptions FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                                   i, $PARTITIONS, i);
+                END LOOP;
+        END IF;
+    END
+\$\$;
+INSERT INTO users
+SELECT ('00000000-0000-0000-0000-' || lpad(to_hex(u), 12, '0'))::uuid, 'user-' || u, 'user-' || u || '@example.com',
+       now() - u * interval '1 second', $ROWS / $USERS
+FROM generate_series(0, $USERS - 1) u;
+INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+SELECT ('00000000-0000-0000-0000-' || lpad(to_hex(i % $USERS), 12, '0'))::uuid,
+       'service-' || (i / $USERS) || '-' || (i % 50),
+       now() - (i % 365) * interval '1 day',
+       now() + (30 - i % 365) * interval '1 day'
+FROM generate_series(0, $ROWS - 1) i;
+CREATE UNIQUE INDEX ON subscriptions (user_id, service_name);
+CREATE INDEX ON subscriptions (service_name, user_id);
+CREATE INDEX ON subscriptions (end_time, id);
+VACUUM ANALYZE users;
+VACUUM ANALYZE subscriptions;
+SQL
+}
+
+write_scripts() {
+  local user="('00000000-0000-0000-0000-' || lpad(to_hex(:user::int), 12, '0'))::uuid"
+  cat > "$RESULTS/user_subscriptions.sql" <<SQL
+\set user random(0, $USERS - 1)
+SELECT * FROM subscriptions WHERE user_id = $user;
+SQL
+  cat > "$RESULTS/subscriptions_page.sql" <<SQL
+\set user random(0, $USERS - 1)
+SELECT * FROM subscriptions WHERE user_id = $user AND id > 0 ORDER BY id LIMIT 100;
+SQL
+  cat > "$RESULTS/subscription_by_name.sql" <<SQL
+\set user random(0, $USERS - 1)
+\set service random(0, 49)
+SELECT * FROM subscriptions WHERE user_id = $user AND service_name = 'service-0-' || :service::int;
+SQL
+  cat > "$RESULTS/upsert.sql" <<SQL
+\set user random(0, $USERS - 1)
+INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+VALUES ($user, 'bench-upsert', now(), now() + interval '30 day')
+ON CONFLICT (user_id, service_name) DO UPDATE SET start_time = EXCLUDED.start_time, end_time = EXCLUDED.end_time;
+SQL
+  cat > "$RESULTS/subscribers_by_service.sql" <<SQL
+SELECT service_name, count(user_id) FROM subscriptions WHERE service_name IS NOT NULL GROUP BY service_name;
+SQL
+}
+
+run_schema() {
+  local schema=$1
+  for script in user_subscriptions subscriptions_page subscription_by_name upsert subscribers_by_service; do
+    local clients=$CLIENTS jobs=$JOBS
+    if [ "$script" = subscribers_by_service ]; then
+      clients=1 jobs=1
+    fi
+    PGOPTIONS="-c search_path=$schema -c enable_partitionwise_aggregate=on" \
+      pgbench -n -M prepared -c "$clients" -j "$jobs" -T "$DURATION" -f "$RESULTS/$script.sql" \
+      > "$RESULTS/$schema-$script.txt" 2>&1
+  done
+  PGOPTIONS="-c search_path=$schema" psql -q -c "EXPLAIN (ANALYZE, BUFFERS)
+      SELECT * FROM subscriptions WHERE user_id = '00000000-0000-0000-0000-000000000001'" \
+    > "$RESULTS/$schema-plan.txt"
+}
+
+create_schema bench_plain "" "id"
+create_schema bench_hash "PARTITION BY HASH (user_id)" "user_id, id"
+write_scripts
+run_schema bench_plain
+run_schema bench_hash
+
+{
+  echo "| query | table | tps | latency avg, ms | latency stddev, ms |"
+  echo "|---|---|---|---|---|"
+  for file in "$RESULTS"/bench_*-*.txt; do
+    base=$(basename "$file" .txt)
+    [ "${base#*-}" = plan ] && continue
+    tps=$(awk '/^tps/ {print $3}' "$file")
+    avg=$(awk '/latency average/ {print $4}' "$file")
+    stddev=$(awk '/latency stddev/ {print $4}' "$file")
+    echo "| ${base#*-} | ${base%%-*} | $tps | $avg | $stddev |"
+  done
+  echo
+  echo "$ROWS подписок, $USERS пользователей, $PARTITIONS hash-секций, $CLIENTS клиентов, $DURATION с на запрос"
+} > "$RESULTS/summary.md"
+
+if [ "${KEEP:-0}" != 1 ]; then
+  psql -q -c "DROP SCHEMA bench_plain CASCADE" -c "DROP SCHEMA bench_hash CASCADE"
+fi
+
+cat "$RESULTS/summary.md"
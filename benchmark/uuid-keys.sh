@@ -0,0 +1,131 @@
+#!/usr/bin/env bash
+# Вставка пользователей с id UUIDv4 против UUIDv7: время загрузки, tps вставок, размер индексов и чтения их страниц с диска.
+# Нужны: запущенный Postgres из secret_information.env, psql, pgbench.
+# Данные создаются в схемах bench_v4 и bench_v7 и удаляются в конце (KEEP=1 — оставить).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+USERS=${USERS:-20000000}
+SUBSCRIPTIONS_PER_USER=${SUBSCRIPTIONS_PER_USER:-2}
+CLIENTS=${CLIENTS:-16}
+JOBS=${JOBS:-4}
+DURATION=${DURATION:-120}
+RESULTS=${RESULTS:-benchmark/results/$(date +%Y%m%d-%H%M%S)-uuid-keys}
+
+set -a
+. ./secret_information.env
+set +a
+
+export PGHOST=${datasource_url%%:*}
+export PGPORT=$([[ "$datasource_url" == *:* ]] && echo "${datasource_url##*:}" || echo 5432)
+export PGDATABASE=$datasource_database_name
+export PGUSER=$datasource_username
+export PGPASSWORD=$datasource_password
+
+mkdir -p "$RESULTS"
+
+# Версия в SQL повторяет раскладку TimeOrderedIdGenerator, но без счётчика: rand_a случаен.
+create_schema() {
+  local schema=$1 id_function=$2
+  psql -v ON_ERROR_STOP=1 -q <<SQL
+DROP SCHEMA IF EXISTS $schema CASCADE;
+CREATE SCHEMA $schema;
+SET search_path = $schema;
+CREATE FUNCTION new_id() RETURNS uuid LANGUAGE sql VOLATILE AS \$\$ SELECT $id_function \$\$;
+CREATE TABLE users
+(
+    id                  UUID PRIMARY KEY,
+    user_name           TEXT,
+    email               TEXT UNIQUE,
+    registration_time   TIMESTAMP,
+    subscription_amount INTEGER
+);
+CREATE TABLE subscriptions
+(
+    id           SERIAL PRIMARY KEY,
+    user_id      UUID NOT NULL REFERENCES users (id),
+    service_name TEXT,
+    start_time   TIMESTAMP,
+    end_time     TIMESTAMP
+);
+CREATE UNIQUE INDEX ON subscriptions (user_id, service_name);
+SQL
+}
+
+load_schema() {
+  local schema=$1 started finished
+  started=$(date +%s.%N)
+  PGOPTIONS="-c search_path=$schema" psql -v ON_ERROR_STOP=1 -q <<SQL
+INSERT INTO users
+SELECT new_id(), 'user-' || u, 'user-' || u || '@example.com', now(), $SUBSCRIPTIONS_PER_USER
+FROM generate_series(0, $USERS - 1) u;
+INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+SELECT id, 'service-' || s, now(), now() + interval '30 day'
+FROM users, generate_series(1, $SUBSCRIPTIONS_PER_USER) s;
+SQL
+  finished=$(date +%s.%N)
+  echo "$finished - $started" | bc > "$RESULTS/$schema-load-seconds.txt"
+  PGOPTIONS="-c search_path=$schema" psql -q -c "VACUUM ANALYZE users" -c "VACUUM ANALYZE subscriptions" \
+    -c "SELECT pg_stat_reset()"
+}
+
+index_sizes() {
+  local schema=$1
+  psql -At -F ' ' -c "SELECT indexrelname, pg_relation_size(indexrelid), idx_blks_read, idx_blks_hit
+      FROM pg_statio_user_indexes WHERE schemaname = '$schema' ORDER BY indexrelname"
+}
+
+write_script() {
+  cat > "$RESULTS/insert_user.sql" <<SQL
+WITH new_user AS (
+    INSERT INTO users VALUES (new_id(), 'bench', 'bench-' || gen_random_uuid() || '@example.com', now(), 1)
+    RETURNING id
+)
+INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+SELECT id, 'bench-service', now(), now() + interval '30 day' FROM new_user;
+SQL
+}
+
+run_schema() {
+  local schema=$1
+  index_sizes "$schema" > "$RESULTS/$schema-indexes-before.txt"
+  PGOPTIONS="-c search_path=$schema" \
+    pgbench -n -M prepared -c "$CLIENTS" -j "$JOBS" -T "$DURATION" -f "$RESULTS/insert_user.sql" \
+    > "$RESULTS/$schema-insert.txt" 2>&1
+  index_sizes "$schema" > "$RESULTS/$schema-indexes-after.txt"
+}
+
+V7="encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid()) placing
+        substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3) FROM 1 FOR 6),
+        52, 1), 53, 1), 'hex')::uuid"
+
+create_schema bench_v4 "gen_random_uuid()"
+create_schema bench_v7 "$V7"
+write_script
+for schema in bench_v4 bench_v7; do
+  load_schema "$schema"
+  run_schema "$schema"
+done
+
+{
+  echo "| id | load, s | insert tps | latency avg, ms | index | size before, MB | size after, MB | blocks read | blocks hit |"
+  echo "|---|---|---|---|---|---|---|---|---|"
+  for schema in bench_v4 bench_v7; do
+    load=$(cat "$RESULTS/$schema-load-seconds.txt")
+    tps=$(awk '/^tps/ {print $3}' "$RESULTS/$schema-insert.txt")
+    avg=$(awk '/latency average/ {print $4}' "$RESULTS/$schema-insert.txt")
+    join <(sort "$RESULTS/$schema-indexes-before.txt") <(sort "$RESULTS/$schema-indexes-after.txt") |
+      while read -r index before _ _ after read hit; do
+        echo "| ${schema#bench_} | $load | $tps | $avg | $index | $((before / 1048576)) | $((after / 1048576)) | $read | $hit |"
+      done
+  done
+  echo
+  echo "$USERS пользователей, по $SUBSCRIPTIONS_PER_USER подписки, $CLIENTS клиентов, $DURATION с вставок"
+} > "$RESULTS/summary.md"
+
+if [ "${KEEP:-0}" != 1 ]; then
+  psql -q -c "DROP SCHEMA bench_v4 CASCADE" -c "DROP SCHEMA bench_v7 CASCADE"
+fi
+
+cat "$RESULTS/summary.md"
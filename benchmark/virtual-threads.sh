@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# Сравнение platform vs virtual threads на одних и тех же эндпоинтах.
+# Нужны: собранный jar (./gradlew bootJar), запущенный Postgres из secret_information.env, wrk, curl.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8081}
+THREADS=${THREADS:-4}
+CONNECTIONS=${CONNECTIONS:-400}
+DURATION=${DURATION:-30s}
+WARMUP=${WARMUP:-10s}
+TOMCAT_MAX_THREADS=${TOMCAT_MAX_THREADS:-200}
+SUBSCRIPTIONS=${SUBSCRIPTIONS:-20}
+RESULTS=${RESULTS:-benchmark/results/$(date +%Y%m%d-%H%M%S)}
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+
+set -a
+. ./secret_information.env
+set +a
+
+mkdir -p "$RESULTS"
+BASE="http://localhost:$PORT/api"
+
+start_app() {
+  java -Dvirtual_threads="$1" \
+       -Dspring.datasource.url="jdbc:postgresql://$datasource_url/$datasource_database_name" \
+       -jar "$JAR" \
+       --server.port="$PORT" \
+       --server.tomcat.threads.max="$TOMCAT_MAX_THREADS" \
+       > "$RESULTS/app-$2.log" 2>&1 &
+  APP_PID=$!
+  for _ in $(seq 1 120); do
+    if curl -s -o /dev/null "$BASE/subscriptions/top"; then
+      return
+    fi
+    sleep 1
+  done
+  echo "Application did not start, see $RESULTS/app-$2.log" >&2
+  exit 1
+}
+
+stop_app() {
+  kill "$APP_PID"
+  wait "$APP_PID" || true
+}
+
+seed() {
+  USER_ID=$(curl -s -X POST -H 'Content-Type: application/json' \
+    -d "{\"userName\":\"bench\",\"email\":\"bench-$(date +%s%N)@example.com\"}" \
+    "$BASE/users" | sed -E 's/.*"message":"([^"]+)".*/\1/')
+  for i in $(seq 1 "$SUBSCRIPTIONS"); do
+    curl -s -o /dev/null -X POST -H 'Content-Type: application/json' \
+      -d "{\"serviceName\":\"bench-service-$i\",\"subscriptionDurationDays\":30}" \
+      "$BASE/users/$USER_ID/subscriptions"
+  done
+}
+
+run_mode() {
+  local mode=$1 flag=$2
+  start_app "$flag" "$mode"
+  if [ -z "${USER_ID:-}" ]; then
+    seed
+  fi
+  for endpoint in "users/$USER_ID" "users/$USER_ID/subscriptions" "subscriptions/top"; do
+    local name=${endpoint//\//_}
+    name=${name//$USER_ID/id}
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$WARMUP" "$BASE/$endpoint" > /dev/null
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "$BASE/$endpoint" > "$RESULTS/$mode-$name.txt"
+  done
+  stop_app
+}
+
+run_mode platform false
+run_mode virtual true
+
+{
+  echo "| endpoint | mode | requests/sec | p99 |"
+  echo "|---|---|---|---|"
+  for file in "$RESULTS"/*.txt; do
+    base=$(basename "$file" .txt)
+    rps=$(awk '/Requests\/sec/ {print $2}' "$file")
+    p99=$(awk '$1 == "99%" {print $2}' "$file")
+    echo "| ${base#*-} | ${base%%-*} | $rps | $p99 |"
+  done
+} > "$RESULTS/summary.md"
+
+cat "$RESULTS/summary.md"
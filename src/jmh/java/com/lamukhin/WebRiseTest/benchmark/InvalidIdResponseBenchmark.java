@@ -0,0 +1,60 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import com.lamukhin.WebRiseTest.exception.IncorrectIdException;
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InvalidIdResponseBenchmark {
+
+    private static final ResponseEntity<ResponseToWeb> INCORRECT_USER_ID = ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(new ResponseToWeb("Incorrect user ID", HttpStatus.BAD_REQUEST.value()));
+
+    @Param({"not-a-uuid", "8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4fzz"})
+    private String invalidId;
+
+    @Benchmark
+    public ResponseEntity<?> before() {
+        try {
+            return ResponseEntity.ok(legacyConvert(invalidId));
+        } catch (LegacyIncorrectIdException ex) {
+            ResponseToWeb errorResponse = new ResponseToWeb("Incorrect user ID", HttpStatus.BAD_REQUEST.value());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> after() {
+        try {
+            return ResponseEntity.ok(ServiceUtil.convertStringToUuid(invalidId));
+        } catch (IncorrectIdException ex) {
+            return INCORRECT_USER_ID;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> afterWithoutException() {
+        UUID parsed = ServiceUtil.parseUuidOrNull(invalidId);
+        return parsed == null ? INCORRECT_USER_ID : ResponseEntity.ok(parsed);
+    }
+
+    private static UUID legacyConvert(String uuid) {
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException ex) {
+            throw new LegacyIncorrectIdException();
+        }
+    }
+
+    private static final class LegacyIncorrectIdException extends RuntimeException {
+    }
+}
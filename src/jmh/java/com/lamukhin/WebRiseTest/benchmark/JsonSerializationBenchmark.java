@@ -0,0 +1,41 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private List<FullSubscriptionInfoDto> subscriptions;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        subscriptions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            subscriptions.add(new FullSubscriptionInfoDto(i + 1, userId, "service-" + i, now, now.plusDays(30)));
+        }
+    }
+
+    @Benchmark
+    public byte[] subscriptionList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscriptions);
+    }
+}
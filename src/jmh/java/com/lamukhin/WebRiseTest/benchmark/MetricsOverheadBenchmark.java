@@ -0,0 +1,72 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    private PrometheusMeterRegistry registry;
+    private Timer daoTimer;
+    private Timer routeTimer;
+    private Counter exceptionCounter;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        daoTimer = Timer.builder("webrise.dao")
+                .tags("class", "UserDao", "method", "findUserById", "exception", "none")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+        routeTimer = Timer.builder("http.server.requests")
+                .tags("method", "GET", "uri", "/api/users/{id}", "status", "200", "outcome", "SUCCESS", "exception", "none")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+        exceptionCounter = Counter.builder("webrise.exceptions")
+                .tag("exception", "IncorrectIdException")
+                .register(registry);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void daoTimer() {
+        daoTimer.record(System.nanoTime() & 0xFFFFF, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void routeTimerWithSample() {
+        Timer.Sample sample = Timer.start(registry);
+        sample.stop(routeTimer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void exceptionCounter() {
+        exceptionCounter.increment();
+    }
+
+    @Benchmark
+    public void lookupTaggedTimer() {
+        registry.timer("webrise.dao", "class", "UserDao", "method", "findUserById", "exception", "none")
+                .record(1, TimeUnit.MILLISECONDS);
+    }
+}
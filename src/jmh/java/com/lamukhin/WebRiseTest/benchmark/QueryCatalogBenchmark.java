@@ -0,0 +1,98 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.lamukhin.WebRiseTest.dao.DtoRecordMapperProvider;
+import com.lamukhin.WebRiseTest.dao.QueryCatalog;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.generated.tables.records.SubscriptionsRecord;
+import com.lamukhin.generated.tables.records.UsersRecord;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultRecordMapperProvider;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+
+/**
+ * jOOQ-side CPU of the two hottest reads: building and rendering the query per call versus
+ * the pre-rendered statements of {@link QueryCatalog}. The JDBC layer is a {@link MockConnection},
+ * so the numbers exclude the driver and the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryCatalogBenchmark {
+
+    @Param({"builder", "catalog"})
+    private String path;
+
+    private DSLContext dsl;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = new DefaultConfiguration().set(SQLDialect.POSTGRES);
+        configuration.set(new DtoRecordMapperProvider(new DefaultRecordMapperProvider(configuration)));
+        DSLContext records = DSL.using(configuration);
+        userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        Result<UsersRecord> users = records.newResult(USERS);
+        UsersRecord user = records.newRecord(USERS);
+        user.setId(userId);
+        user.setUserName("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setRegistrationTime(now);
+        user.setSubscriptionAmount(10);
+        users.add(user);
+
+        Result<SubscriptionsRecord> subscriptions = records.newResult(SUBSCRIPTIONS);
+        for (int i = 0; i < 10; i++) {
+            SubscriptionsRecord subscription = records.newRecord(SUBSCRIPTIONS);
+            subscription.setId(i + 1);
+            subscription.setUserId(userId);
+            subscription.setServiceName("service-" + i);
+            subscription.setStartTime(now);
+            subscription.setEndTime(now.plusDays(30));
+            subscriptions.add(subscription);
+        }
+
+        dsl = DSL.using(configuration.derive(new MockConnection(context -> new MockResult[]{
+                context.sql().contains("subscriptions")
+                        ? new MockResult(subscriptions.size(), subscriptions)
+                        : new MockResult(users.size(), users)
+        })));
+    }
+
+    @Benchmark
+    public FullUserInfoDto findUserById() {
+        if (path.equals("catalog")) {
+            return QueryCatalog.userById(dsl, userId).fetchOneInto(FullUserInfoDto.class);
+        }
+        return dsl.selectFrom(USERS)
+                .where(USERS.ID.eq(userId))
+                .fetchOneInto(FullUserInfoDto.class);
+    }
+
+    @Benchmark
+    public List<FullSubscriptionInfoDto> getAllSubscriptionsByUserId() {
+        if (path.equals("catalog")) {
+            return QueryCatalog.subscriptionsByUserId(dsl, userId).fetchInto(FullSubscriptionInfoDto.class);
+        }
+        return dsl.selectFrom(SUBSCRIPTIONS)
+                .where(SUBSCRIPTIONS.USER_ID.eq(userId))
+                .fetchInto(FullSubscriptionInfoDto.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.lamukhin.WebRiseTest.dao.DtoRecordMapperProvider;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.generated.tables.records.SubscriptionsRecord;
+import com.lamukhin.generated.tables.records.UsersRecord;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultRecordMapperProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecordMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int rows;
+
+    @Param({"reflective", "compiled"})
+    private String mapper;
+
+    private Result<SubscriptionsRecord> subscriptions;
+    private UsersRecord user;
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = new DefaultConfiguration().set(SQLDialect.POSTGRES);
+        if (mapper.equals("compiled")) {
+            configuration.set(new DtoRecordMapperProvider(new DefaultRecordMapperProvider(configuration)));
+        }
+        DSLContext dsl = DSL.using(configuration);
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        subscriptions = dsl.newResult(SUBSCRIPTIONS);
+        for (int i = 0; i < rows; i++) {
+            SubscriptionsRecord record = dsl.newRecord(SUBSCRIPTIONS);
+            record.setId(i + 1);
+            record.setUserId(userId);
+            record.setServiceName("service-" + i);
+            record.setStartTime(now);
+            record.setEndTime(now.plusDays(30));
+            subscriptions.add(record);
+        }
+
+        user = dsl.newRecord(USERS);
+        user.setId(userId);
+        user.setUserName("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setRegistrationTime(now);
+        user.setSubscriptionAmount(rows);
+    }
+
+    @Benchmark
+    public List<FullSubscriptionInfoDto> subscriptionsInto() {
+        return subscriptions.into(FullSubscriptionInfoDto.class);
+    }
+
+    @Benchmark
+    public FullUserInfoDto userInto() {
+        return user.into(FullUserInfoDto.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ResponseToWeb okResponse;
+    private ResponseToWeb errorResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        okResponse = new ResponseToWeb(UUID.randomUUID().toString(), 200);
+        errorResponse = new ResponseToWeb("Something went wrong...", 500);
+    }
+
+    @Benchmark
+    public byte[] okResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(okResponse);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(errorResponse);
+    }
+}
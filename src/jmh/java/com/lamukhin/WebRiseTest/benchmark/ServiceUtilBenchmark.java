@@ -0,0 +1,37 @@
+package com.lamukhin.WebRiseTest.benchmark;
+
+import com.lamukhin.WebRiseTest.exception.IncorrectIdException;
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceUtilBenchmark {
+
+    private String validId;
+    private String invalidId;
+
+    @Setup
+    public void setUp() {
+        validId = UUID.randomUUID().toString();
+        invalidId = "not-a-uuid-" + validId.substring(0, 8);
+    }
+
+    @Benchmark
+    public UUID convertValidUuid() {
+        return ServiceUtil.convertStringToUuid(validId);
+    }
+
+    @Benchmark
+    public Object convertInvalidUuid() {
+        try {
+            return ServiceUtil.convertStringToUuid(invalidId);
+        } catch (IncorrectIdException ex) {
+            return ex;
+        }
+    }
+}
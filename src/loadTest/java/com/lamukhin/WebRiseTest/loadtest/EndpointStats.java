@@ -0,0 +1,65 @@
+package com.lamukhin.WebRiseTest.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class EndpointStats {
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder unexpectedStatuses = new LongAdder();
+
+    void record(long elapsedNanos, int status, boolean expected) {
+        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        requests.increment();
+        if (status >= 500) {
+            serverErrors.increment();
+        }
+        if (!expected) {
+            unexpectedStatuses.increment();
+        }
+    }
+
+    void recordIoError() {
+        requests.increment();
+        ioErrors.increment();
+    }
+
+    void reset() {
+        latencyMicros.reset();
+        requests.reset();
+        ioErrors.reset();
+        serverErrors.reset();
+        unexpectedStatuses.reset();
+    }
+
+    long failures() {
+        return ioErrors.sum() + unexpectedStatuses.sum();
+    }
+
+    Map<String, Object> toReport(String endpoint, double seconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("endpoint", endpoint);
+        report.put("requests", requests.sum());
+        report.put("throughputPerSecond", requests.sum() / seconds);
+        report.put("ioErrors", ioErrors.sum());
+        report.put("serverErrors", serverErrors.sum());
+        report.put("unexpectedStatuses", unexpectedStatuses.sum());
+        report.put("p50Ms", percentileMs(50));
+        report.put("p95Ms", percentileMs(95));
+        report.put("p99Ms", percentileMs(99));
+        report.put("maxMs", latencyMicros.getTotalCount() == 0 ? 0.0 : latencyMicros.getMaxValue() / 1000.0);
+        return report;
+    }
+
+    private double percentileMs(double percentile) {
+        return latencyMicros.getTotalCount() == 0 ? 0.0 : latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
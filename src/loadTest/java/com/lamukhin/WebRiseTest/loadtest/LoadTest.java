@@ -0,0 +1,295 @@
+package com.lamukhin.WebRiseTest.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lamukhin.WebRiseTest.WebRiseTestApplication;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.service.SubscriptionService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+public class LoadTest {
+
+    private static final String SEED_USERS_SQL = """
+            INSERT INTO users (id, user_name, email, registration_time, subscription_amount)
+            SELECT ('00000000-0000-0000-0000-' || lpad(to_hex(i), 12, '0'))::uuid,
+                   'user-' || i,
+                   'user-' || i || '@loadtest.local',
+                   now() - make_interval(secs => i),
+                   0
+            FROM generate_series(0, ? - 1) AS i
+            """;
+
+    private static final String SEED_SUBSCRIPTIONS_SQL = """
+            INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+            SELECT ('00000000-0000-0000-0000-' || lpad(to_hex(i % ?), 12, '0'))::uuid,
+                   'service-' || (i / ?),
+                   now(),
+                   now() + interval '30 days'
+            FROM generate_series(0, ? - 1) AS i
+            """;
+
+    private static final String SYNC_SUBSCRIPTION_AMOUNT_SQL = """
+            UPDATE users u
+            SET subscription_amount = (SELECT count(*) FROM subscriptions s WHERE s.user_id = u.id)
+            """;
+
+    private static final String AMOUNT_DRIFT_SQL = """
+            SELECT u.id, u.subscription_amount, count(s.id) AS actual
+            FROM users u
+                     LEFT JOIN subscriptions s ON s.user_id = u.id
+            GROUP BY u.id, u.subscription_amount
+            HAVING coalesce(u.subscription_amount, 0) <> count(s.id)
+            LIMIT 100
+            """;
+
+    private static final String TOP_SUBSCRIPTIONS_SQL = """
+            SELECT service_name, count(*) AS subscribers
+            FROM subscriptions
+            GROUP BY service_name
+            ORDER BY subscribers DESC, service_name
+            LIMIT 10
+            """;
+
+    private final LoadTestConfig config;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final List<String> violations = new ArrayList<>();
+    private final Operation[] weightedOperations;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private String baseUrl;
+    private String jdbcUrl;
+
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+        List<Operation> weighted = new ArrayList<>();
+        config.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.weightedOperations = weighted.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        EmbeddedPostgres embeddedPostgres = config.jdbcUrl() == null ? EmbeddedPostgres.builder().start() : null;
+        String jdbcUrl = embeddedPostgres == null
+                ? config.jdbcUrl()
+                : embeddedPostgres.getJdbcUrl(config.jdbcUser(), "postgres");
+        int violations;
+        try {
+            violations = new LoadTest(config).run(jdbcUrl);
+        } finally {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    int run(String jdbcUrl) throws Exception {
+        this.jdbcUrl = jdbcUrl;
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + config.jdbcUser(),
+                "--spring.datasource.password=" + config.jdbcPassword()));
+        args.addAll(config.appArgs());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WebRiseTestApplication.class)
+                .run(args.toArray(String[]::new))) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            seed();
+            context.getBean(SubscriptionService.class).rebuildLeaderboard();
+            context.getBean(UserCache.class).invalidateAll();
+
+            log.info("Warming up for {}", config.warmup());
+            drive(config.warmup());
+            stats.values().forEach(EndpointStats::reset);
+
+            log.info("Running {} clients for {}", config.clients(), config.duration());
+            Instant start = Instant.now();
+            drive(config.duration());
+            double seconds = Duration.between(start, Instant.now()).toMillis() / 1000.0;
+
+            checkInvariants();
+            writeReport(seconds);
+        }
+        violations.forEach(violation -> log.error("Violation: {}", violation));
+        return violations.size();
+    }
+
+    private void seed() throws SQLException {
+        try (Connection connection = openConnection()) {
+            connection.setAutoCommit(false);
+            try (var users = connection.prepareStatement(SEED_USERS_SQL);
+                 var subscriptions = connection.prepareStatement(SEED_SUBSCRIPTIONS_SQL);
+                 Statement statement = connection.createStatement()) {
+                users.setInt(1, config.users());
+                users.executeUpdate();
+                subscriptions.setInt(1, config.users());
+                subscriptions.setInt(2, config.users());
+                subscriptions.setInt(3, config.subscriptions());
+                subscriptions.executeUpdate();
+                statement.executeUpdate(SYNC_SUBSCRIPTION_AMOUNT_SQL);
+                statement.execute("ANALYZE users");
+                statement.execute("ANALYZE subscriptions");
+            }
+            connection.commit();
+        }
+        log.info("Seeded {} users and {} subscriptions", config.users(), config.subscriptions());
+    }
+
+    private void drive(Duration duration) throws InterruptedException {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.clients(); i++) {
+                clients.submit(() -> {
+                    while (running.get()) {
+                        execute(weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)]);
+                    }
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+        }
+    }
+
+    private void execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String userId = userId(random.nextInt(config.users()));
+        HttpRequest.Builder request = switch (operation) {
+            case getUser -> get("/api/users/" + userId);
+            case listUsers -> get("/api/users?limit=50");
+            case listSubscriptions -> get("/api/users/" + userId + "/subscriptions");
+            case pageSubscriptions -> get("/api/users/" + userId + "/subscriptions?limit=20");
+            case addSubscription -> request("/api/users/" + userId + "/subscriptions")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"serviceName\":\"load-" + random.nextInt(50)
+                            + "\",\"subscriptionDurationDays\":30}"));
+            case deleteSubscription -> request("/api/users/" + userId + "/subscriptions/"
+                    + (1 + random.nextInt(config.subscriptions()))).DELETE();
+            case top -> get("/api/subscriptions/top?limit=10");
+        };
+        EndpointStats endpointStats = stats.get(operation);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            endpointStats.record(System.nanoTime() - start, response.statusCode(), operation.isExpected(response.statusCode()));
+        } catch (IOException ex) {
+            endpointStats.recordIoError();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private void checkInvariants() throws SQLException {
+        stats.forEach((operation, endpointStats) -> {
+            if (endpointStats.failures() > 0) {
+                violations.add(operation.endpoint() + ": " + endpointStats.failures()
+                        + " requests failed or returned an unexpected status");
+            }
+        });
+        try (Connection connection = openConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet drift = statement.executeQuery(AMOUNT_DRIFT_SQL)) {
+                while (drift.next()) {
+                    violations.add("subscription_amount drift for user " + drift.getString("id")
+                            + ": stored " + drift.getObject("subscription_amount")
+                            + ", actual " + drift.getLong("actual"));
+                }
+            }
+            List<TopSubscription> expectedTop = new ArrayList<>();
+            try (ResultSet top = statement.executeQuery(TOP_SUBSCRIPTIONS_SQL)) {
+                while (top.next()) {
+                    expectedTop.add(new TopSubscription(top.getString("service_name"), top.getInt("subscribers")));
+                }
+            }
+            String actualTop = HttpClient.newHttpClient()
+                    .send(get("/api/subscriptions/top?limit=10").build(), HttpResponse.BodyHandlers.ofString())
+                    .body();
+            String expectedJson = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsString(expectedTop);
+            if (!objectMapper.readTree(actualTop).equals(objectMapper.readTree(expectedJson))) {
+                violations.add("leaderboard diverged from subscriptions table: expected " + expectedJson
+                        + ", got " + actualTop);
+            }
+        } catch (IOException | InterruptedException ex) {
+            violations.add("failed to verify leaderboard: " + ex.getMessage());
+        }
+    }
+
+    private void writeReport(double seconds) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        stats.forEach((operation, endpointStats) -> {
+            if (config.mix().containsKey(operation)) {
+                endpoints.add(endpointStats.toReport(operation.endpoint(), seconds));
+            }
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", config.users());
+        report.put("subscriptions", config.subscriptions());
+        report.put("clients", config.clients());
+        report.put("durationSeconds", seconds);
+        report.put("mix", config.mix());
+        report.put("app", config.appArgs());
+        report.put("endpoints", endpoints);
+        report.put("violations", violations);
+        Files.createDirectories(config.report().toAbsolutePath().getParent());
+        objectMapper.writeValue(config.report().toFile(), report);
+        log.info("Load test report written to {}", config.report().toAbsolutePath());
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, config.jdbcUser(), config.jdbcPassword());
+    }
+
+    private static String userId(int index) {
+        return new UUID(0L, index).toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.lamukhin.WebRiseTest.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+record LoadTestConfig(
+        int users,
+        int subscriptions,
+        int clients,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        Path report,
+        List<String> appArgs
+) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 1_000),
+                Integer.getInteger("loadtest.subscriptions", 5_000),
+                Integer.getInteger("loadtest.clients", 64),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                parseMix(System.getProperty("loadtest.mix",
+                        "getUser=35,listUsers=5,listSubscriptions=20,pageSubscriptions=10,addSubscription=15,deleteSubscription=5,top=10")),
+                System.getProperty("loadtest.jdbcUrl"),
+                System.getProperty("loadtest.jdbcUser", "postgres"),
+                System.getProperty("loadtest.jdbcPassword", "postgres"),
+                Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/report.json")),
+                parseAppArgs(System.getProperty("loadtest.app", ""))
+        );
+    }
+
+    private static List<String> parseAppArgs(String app) {
+        return Arrays.stream(app.split(","))
+                .map(String::trim)
+                .filter(arg -> !arg.isEmpty())
+                .map(arg -> "--" + arg)
+                .toList();
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operations with positive weight");
+        }
+        return weights;
+    }
+}
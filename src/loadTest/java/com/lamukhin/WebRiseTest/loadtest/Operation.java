@@ -0,0 +1,29 @@
+package com.lamukhin.WebRiseTest.loadtest;
+
+import java.util.Set;
+
+enum Operation {
+    getUser("GET /api/users/{id}", Set.of(200)),
+    listUsers("GET /api/users?limit=50", Set.of(200)),
+    listSubscriptions("GET /api/users/{id}/subscriptions", Set.of(200)),
+    pageSubscriptions("GET /api/users/{id}/subscriptions?limit=20", Set.of(200)),
+    addSubscription("POST /api/users/{id}/subscriptions", Set.of(200, 400)),
+    deleteSubscription("DELETE /api/users/{id}/subscriptions/{sub_id}", Set.of(200, 404)),
+    top("GET /api/subscriptions/top?limit=10", Set.of(200));
+
+    private final String endpoint;
+    private final Set<Integer> expectedStatuses;
+
+    Operation(String endpoint, Set<Integer> expectedStatuses) {
+        this.endpoint = endpoint;
+        this.expectedStatuses = expectedStatuses;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    boolean isExpected(int status) {
+        return expectedStatuses.contains(status);
+    }
+}
@@ -0,0 +1,10 @@
+package com.lamukhin.WebRiseTest.accesslog;
+
+public record AccessLogRecord(
+        String method,
+        String route,
+        String userId,
+        int status,
+        long latencyNanos
+) {
+}
@@ -0,0 +1,116 @@
+package com.lamukhin.WebRiseTest.accesslog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty(value = "access-log.enabled", matchIfMissing = true)
+@Slf4j
+public class AccessLogWriter implements MeterBinder {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+    private static final int DRAIN_BATCH = 1024;
+
+    private final AccessLogRingBuffer<AccessLogRecord> buffer;
+    private final double successSampleRate;
+    private final Duration flushInterval;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private long reportedDrops;
+    private ScheduledExecutorService writer;
+
+    public AccessLogWriter(@Value("${access-log.buffer-size:8192}") int bufferSize,
+                           @Value("${access-log.success-sample-rate:0.1}") double successSampleRate,
+                           @Value("${access-log.flush-interval:PT0.01S}") Duration flushInterval) {
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.successSampleRate = successSampleRate;
+        this.flushInterval = flushInterval;
+    }
+
+    public void record(String method, String route, String userId, int status, long latencyNanos) {
+        if (status < 400 && !sampled()) {
+            return;
+        }
+        if (!buffer.offer(new AccessLogRecord(method, route, userId, status, latencyNanos))) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "access-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMicros = flushInterval.toNanos() / 1000;
+        writer.scheduleWithFixedDelay(this::drain, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+        log.info("Access log: buffer {}, success sample rate {}", buffer.capacity(), successSampleRate);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(1, TimeUnit.SECONDS);
+            drain();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("webrise.access_log.dropped", dropped, LongAdder::sum).register(registry);
+        FunctionCounter.builder("webrise.access_log.written", written, LongAdder::sum).register(registry);
+        Gauge.builder("webrise.access_log.pending", buffer, AccessLogRingBuffer::size).register(registry);
+    }
+
+    private boolean sampled() {
+        return successSampleRate >= 1.0
+                || successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+    private synchronized void drain() {
+        try {
+            int drained;
+            do {
+                drained = buffer.drain(this::write, DRAIN_BATCH);
+            } while (drained == DRAIN_BATCH);
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                log.warn("Access log buffer overflowed, {} records dropped so far", drops);
+                reportedDrops = drops;
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to write access log: {}", ex.getMessage());
+        }
+    }
+
+    private void write(AccessLogRecord record) {
+        ACCESS_LOG.info("method={} route={} userId={} status={} latencyMs={}",
+                record.method(), record.route(), record.userId(), record.status(),
+                record.latencyNanos() / 1000 / 1000.0);
+        written.increment();
+    }
+}
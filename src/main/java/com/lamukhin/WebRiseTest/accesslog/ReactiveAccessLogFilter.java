@@ -0,0 +1,44 @@
+package com.lamukhin.WebRiseTest.accesslog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(value = "access-log.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ReactiveAccessLogFilter implements WebFilter {
+
+    private final AccessLogWriter accessLogWriter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            Object route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Map<String, String> variables = exchange.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            accessLogWriter.record(exchange.getRequest().getMethod().name(),
+                    route != null ? route.toString() : exchange.getRequest().getPath().value(),
+                    variables != null ? variables.get("id") : null,
+                    signal == SignalType.ON_ERROR ? HttpStatus.INTERNAL_SERVER_ERROR.value()
+                            : status != null ? status.value() : HttpStatus.OK.value(),
+                    System.nanoTime() - start);
+        });
+    }
+}
@@ -0,0 +1,294 @@
+package com.lamukhin.WebRiseTest.cache;
+
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class EmailBloomFilter implements MeterBinder {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+    private static final int FETCH_SIZE = 10_000;
+
+    private final UserDao userDao;
+    private final boolean enabled;
+    private final long initialCapacity;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder maybeHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    private volatile Scalable current;
+    private volatile Scalable rebuilding;
+    private ScheduledExecutorService scheduler;
+
+    public EmailBloomFilter(UserDao userDao,
+                            @Value("${users.email-filter.enabled:true}") boolean enabled,
+                            @Value("${users.email-filter.initial-capacity:100000}") long initialCapacity,
+                            @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${users.email-filter.rebuild-interval:PT12H}") Duration rebuildInterval) {
+        this.userDao = userDao;
+        this.enabled = enabled;
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildSafely, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean mightContain(String email) {
+        Scalable filter = current;
+        if (filter == null || email == null) {
+            return true;
+        }
+        if (filter.mightContain(hash(email))) {
+            maybeHits.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        long hash = hash(email);
+        Scalable filter = current;
+        if (filter != null) {
+            filter.add(hash);
+        }
+        Scalable next = rebuilding;
+        if (next != null) {
+            next.add(hash);
+        }
+    }
+
+    // The write itself is the exact check: an email written after a "maybe" was a false positive.
+    public void addWritten(String email, boolean reportedMaybe) {
+        if (reportedMaybe && current != null) {
+            falsePositives.increment();
+        }
+        add(email);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        Scalable next = new Scalable(initialCapacity, falsePositiveRate);
+        rebuilding = next;
+        try {
+            userDao.streamAllEmails(FETCH_SIZE, email -> next.add(hash(email)));
+            current = next;
+        } finally {
+            rebuilding = null;
+        }
+        lastRebuildMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Email filter rebuilt from {} emails in {} ms, {} KiB",
+                next.size(), lastRebuildMillis.get(), next.memoryBytes() / 1024);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("webrise.email_filter.checks", definiteMisses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("webrise.email_filter.checks", maybeHits, LongAdder::sum)
+                .tag("result", "maybe")
+                .register(registry);
+        FunctionCounter.builder("webrise.email_filter.false_positives", falsePositives, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("webrise.email_filter.false_positive_rate", this, EmailBloomFilter::observedFalsePositiveRate)
+                .register(registry);
+        Gauge.builder("webrise.email_filter.memory", this, filter -> filter.current == null ? 0 : filter.current.memoryBytes())
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("webrise.email_filter.elements", this, filter -> filter.current == null ? 0 : filter.current.size())
+                .register(registry);
+        Gauge.builder("webrise.email_filter.rebuild.duration", lastRebuildMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    double observedFalsePositiveRate() {
+        long absent = definiteMisses.sum() + falsePositives.sum();
+        return absent == 0 ? 0 : (double) falsePositives.sum() / absent;
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (DataAccessException ex) {
+            log.error("Failed to rebuild email filter, keeping the previous one: {}", ex.getMessage());
+        }
+    }
+
+    static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static final class Scalable {
+
+        private final List<Stage> stages = new ArrayList<>();
+        private volatile Stage[] snapshot;
+
+        Scalable(long initialCapacity, double falsePositiveRate) {
+            Stage first = new Stage(Math.max(initialCapacity, 64), falsePositiveRate * (1 - TIGHTENING));
+            stages.add(first);
+            snapshot = new Stage[]{first};
+        }
+
+        boolean mightContain(long hash) {
+            for (Stage stage : snapshot) {
+                if (stage.mightContain(hash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long hash) {
+            Stage[] stages = snapshot;
+            Stage last = stages[stages.length - 1];
+            if (last.count.get() >= last.capacity) {
+                last = grow(last);
+            }
+            last.add(hash);
+        }
+
+        long size() {
+            long size = 0;
+            for (Stage stage : snapshot) {
+                size += stage.count.get();
+            }
+            return size;
+        }
+
+        long memoryBytes() {
+            long bytes = 0;
+            for (Stage stage : snapshot) {
+                bytes += (long) stage.bits.length() * Long.BYTES;
+            }
+            return bytes;
+        }
+
+        int stageCount() {
+            return snapshot.length;
+        }
+
+        private synchronized Stage grow(Stage full) {
+            Stage last = stages.get(stages.size() - 1);
+            if (last != full) {
+                return last;
+            }
+            Stage next = new Stage(full.capacity * GROWTH, full.falsePositiveRate * TIGHTENING);
+            stages.add(next);
+            snapshot = stages.toArray(Stage[]::new);
+            return next;
+        }
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long words = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / Long.SIZE);
+            this.bits = new AtomicLongArray(Math.toIntExact(Math.max(words, 1)));
+            this.bitCount = (long) bits.length() * Long.SIZE;
+            this.hashCount = Math.max(1, (int) Math.ceil(-Math.log(falsePositiveRate) / Math.log(2)));
+        }
+
+        boolean mightContain(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                long previous = bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+                changed |= (previous & mask) == 0;
+            }
+            if (changed) {
+                count.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.lamukhin.WebRiseTest.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import com.lamukhin.WebRiseTest.service.SubscriptionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(value = "cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InvalidationListener {
+
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long MIN_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final InvalidationPublisher invalidationPublisher;
+    private final ObjectMapper objectMapper;
+    private final UserCache userCache;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+    private final SubscriptionService subscriptionService;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(POLL_TIMEOUT_MS * 2L);
+    }
+
+    private void listen() {
+        long backoffMs = MIN_BACKOFF_MS;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                if (reconnect) {
+                    resyncAfterReconnect();
+                }
+                backoffMs = MIN_BACKOFF_MS;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        apply(notifications);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener lost its connection, reconnecting in {} ms: {}", backoffMs, e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + invalidationPublisher.getChannel());
+        }
+        return connection;
+    }
+
+    private void resyncAfterReconnect() {
+        log.info("Invalidation listener reconnected, dropping local caches");
+        userCache.invalidateAll();
+        subscriptionService.rebuildLeaderboard();
+    }
+
+    private void apply(PGNotification[] notifications) {
+        Set<UUID> users = new HashSet<>();
+        Map<String, Integer> deltas = new HashMap<>();
+        boolean flushAll = false;
+        for (PGNotification notification : notifications) {
+            InvalidationMessage message;
+            try {
+                message = objectMapper.readValue(notification.getParameter(), InvalidationMessage.class);
+            } catch (Exception e) {
+                log.warn("Skipping malformed invalidation message: {}", e.getMessage());
+                continue;
+            }
+            if (invalidationPublisher.getNodeId().equals(message.nodeId())) {
+                continue;
+            }
+            flushAll |= message.flushAll();
+            if (message.userIds() != null) {
+                users.addAll(message.userIds());
+            }
+            if (message.subscriberDeltas() != null) {
+                message.subscriberDeltas().forEach((name, delta) -> deltas.merge(name, delta, Integer::sum));
+            }
+        }
+        if (flushAll) {
+            userCache.invalidateAll();
+            subscriptionService.rebuildLeaderboard();
+            return;
+        }
+        users.forEach(userCache::invalidate);
+        deltas.forEach(subscriptionLeaderboard::change);
+    }
+}
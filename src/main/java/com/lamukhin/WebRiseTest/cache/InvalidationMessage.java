@@ -0,0 +1,17 @@
+package com.lamukhin.WebRiseTest.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record InvalidationMessage(
+        @JsonProperty("n") String nodeId,
+        @JsonProperty("u") List<UUID> userIds,
+        @JsonProperty("s") Map<String, Integer> subscriberDeltas,
+        @JsonProperty("f") boolean flushAll
+) {
+}
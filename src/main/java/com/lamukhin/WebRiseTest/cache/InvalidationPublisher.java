@@ -0,0 +1,193 @@
+package com.lamukhin.WebRiseTest.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultDSLContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class InvalidationPublisher {
+
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+    private static final int UUID_BYTES = 39;
+    private static final int MAX_PENDING_USERS = 10_000;
+
+    private final DefaultDSLContext dslContext;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String channel;
+    private final Duration flushInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Object pendingLock = new Object();
+    private Set<UUID> pendingUsers = new LinkedHashSet<>();
+    private Map<String, Integer> pendingDeltas = new HashMap<>();
+    private boolean pendingFlushAll;
+
+    private ScheduledExecutorService flusher;
+
+    public InvalidationPublisher(DefaultDSLContext dslContext,
+                                 ObjectMapper objectMapper,
+                                 @Value("${cache.invalidation.enabled:true}") boolean enabled,
+                                 @Value("${cache.invalidation.channel:webrise_invalidation}") String channel,
+                                 @Value("${cache.invalidation.flush-interval:PT0.02S}") Duration flushInterval) {
+        this.dslContext = dslContext;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.flushInterval = flushInterval;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMicros = flushInterval.toNanos() / 1000;
+        flusher.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    public void publishUserChanged(UUID userId) {
+        afterCommit(() -> enqueue(userId, null, 0, false));
+    }
+
+    public void publishSubscriptionsChanged(UUID userId, String serviceName, int delta) {
+        afterCommit(() -> enqueue(userId, serviceName, delta, false));
+    }
+
+    public void publishFlushAll() {
+        afterCommit(() -> enqueue(null, null, 0, true));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void enqueue(UUID userId, String serviceName, int delta, boolean flushAll) {
+        synchronized (pendingLock) {
+            if (flushAll || pendingUsers.size() >= MAX_PENDING_USERS) {
+                pendingFlushAll = true;
+                pendingUsers.clear();
+            } else if (userId != null && !pendingFlushAll) {
+                pendingUsers.add(userId);
+            }
+            if (serviceName != null && delta != 0) {
+                pendingDeltas.merge(serviceName, delta, Integer::sum);
+            }
+        }
+    }
+
+    private void flush() {
+        Set<UUID> users;
+        Map<String, Integer> deltas;
+        boolean flushAll;
+        synchronized (pendingLock) {
+            if (pendingUsers.isEmpty() && pendingDeltas.isEmpty() && !pendingFlushAll) {
+                return;
+            }
+            users = pendingUsers;
+            deltas = pendingDeltas;
+            flushAll = pendingFlushAll;
+            pendingUsers = new LinkedHashSet<>();
+            pendingDeltas = new HashMap<>();
+            pendingFlushAll = false;
+        }
+        try {
+            for (String payload : toPayloads(users, deltas, flushAll)) {
+                dslContext
+                        .resultQuery("SELECT pg_notify({0}, {1})", DSL.val(channel), DSL.val(payload))
+                        .fetch();
+            }
+        } catch (Throwable e) {
+            log.error("Failed to publish cache invalidation, asking other nodes to flush: {}", e.getMessage());
+            enqueue(null, null, 0, true);
+        }
+    }
+
+    private List<String> toPayloads(Collection<UUID> users, Map<String, Integer> deltas, boolean flushAll)
+            throws JsonProcessingException {
+        if (flushAll) {
+            return List.of(encode(List.of(), Map.of(), true));
+        }
+        List<String> payloads = new ArrayList<>();
+        List<UUID> userChunk = new ArrayList<>();
+        Map<String, Integer> deltaChunk = new HashMap<>();
+        int chunkBytes = 0;
+        for (UUID user : users) {
+            if (chunkBytes + UUID_BYTES > MAX_PAYLOAD_BYTES) {
+                payloads.add(encode(userChunk, deltaChunk, false));
+                userChunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            userChunk.add(user);
+            chunkBytes += UUID_BYTES;
+        }
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            int deltaBytes = delta.getKey().getBytes(StandardCharsets.UTF_8).length * 2 + 16;
+            if (chunkBytes + deltaBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(encode(userChunk, deltaChunk, false));
+                userChunk = new ArrayList<>();
+                deltaChunk = new HashMap<>();
+                chunkBytes = 0;
+            }
+            deltaChunk.put(delta.getKey(), delta.getValue());
+            chunkBytes += deltaBytes;
+        }
+        if (!userChunk.isEmpty() || !deltaChunk.isEmpty()) {
+            payloads.add(encode(userChunk, deltaChunk, false));
+        }
+        return payloads;
+    }
+
+    private String encode(List<UUID> users, Map<String, Integer> deltas, boolean flushAll) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new InvalidationMessage(nodeId, users, deltas, flushAll));
+    }
+}
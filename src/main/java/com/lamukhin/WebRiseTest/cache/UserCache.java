@@ -0,0 +1,106 @@
+package com.lamukhin.WebRiseTest.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class UserCache implements MeterBinder {
+
+    private final AsyncCache<UUID, FullUserInfoDto> asyncCache;
+    private final Cache<UUID, FullUserInfoDto> cache;
+
+    public UserCache(@Value("${users.cache.enabled:true}") boolean enabled,
+                     @Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:PT5M}") Duration ttl) {
+        this.asyncCache = enabled
+                ? Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync()
+                : null;
+        this.cache = enabled ? asyncCache.synchronous() : null;
+        log.info("User cache is {}", enabled ? "enabled, max size " + maxSize + ", ttl " + ttl : "disabled");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "users");
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public FullUserInfoDto get(UUID id, Function<UUID, FullUserInfoDto> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    // An invalidation during the load drops the pending future, so the loaded row is not cached afterwards.
+    public CompletableFuture<FullUserInfoDto> getAsync(UUID id, Function<UUID, CompletableFuture<FullUserInfoDto>> loader) {
+        if (asyncCache == null) {
+            return loader.apply(id);
+        }
+        return asyncCache.get(id, (key, executor) -> loader.apply(key));
+    }
+
+    public FullUserInfoDto getIfPresent(UUID id) {
+        return cache == null ? null : cache.getIfPresent(id);
+    }
+
+    public void put(UUID id, FullUserInfoDto user) {
+        if (cache != null && user != null) {
+            cache.put(id, user);
+        }
+    }
+
+    public void invalidate(UUID id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAfterCommit(UUID id) {
+        invalidate(id);
+        if (cache != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long estimatedSize() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+}
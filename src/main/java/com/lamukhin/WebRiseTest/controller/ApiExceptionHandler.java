@@ -0,0 +1,83 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import com.lamukhin.WebRiseTest.exception.IncorrectCursorException;
+import com.lamukhin.WebRiseTest.exception.IncorrectIdException;
+import com.lamukhin.WebRiseTest.exception.SubscriptionException;
+import com.lamukhin.WebRiseTest.exception.UserNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+@Slf4j
+public class ApiExceptionHandler implements MeterBinder {
+
+    static final ResponseEntity<ResponseToWeb> INCORRECT_USER_ID = prebuilt("Incorrect user ID", HttpStatus.BAD_REQUEST);
+    static final ResponseEntity<ResponseToWeb> INCORRECT_CURSOR = prebuilt("Incorrect cursor", HttpStatus.BAD_REQUEST);
+    static final ResponseEntity<ResponseToWeb> USER_NOT_FOUND = prebuilt("User is not found", HttpStatus.NOT_FOUND);
+    static final ResponseEntity<ResponseToWeb> SOMETHING_WENT_WRONG = prebuilt("Something went wrong...", HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final LongAdder incorrectIds = new LongAdder();
+    private final LongAdder notFoundUsers = new LongAdder();
+    private final LongAdder subscriptionErrors = new LongAdder();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCounter(registry, IncorrectIdException.class, incorrectIds);
+        bindCounter(registry, UserNotFoundException.class, notFoundUsers);
+        bindCounter(registry, SubscriptionException.class, subscriptionErrors);
+    }
+
+    @ExceptionHandler(IncorrectIdException.class)
+    public ResponseEntity<ResponseToWeb> handleIncorrectId() {
+        incorrectIds.increment();
+        return INCORRECT_USER_ID;
+    }
+
+    @ExceptionHandler(IncorrectCursorException.class)
+    public ResponseEntity<ResponseToWeb> handleIncorrectCursor() {
+        return INCORRECT_CURSOR;
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ResponseToWeb> handleUserNotFound() {
+        notFoundUsers.increment();
+        return USER_NOT_FOUND;
+    }
+
+    @ExceptionHandler(SubscriptionException.class)
+    public ResponseEntity<ResponseToWeb> handleSubscription(SubscriptionException ex) {
+        subscriptionErrors.increment();
+        ResponseToWeb errorResponse = new ResponseToWeb(ex.getMessage(), HttpStatus.BAD_REQUEST.value());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<ResponseToWeb> handleUnexpected(RuntimeException ex) {
+        if (ex instanceof NestedRuntimeException && !(ex instanceof DataAccessException)) {
+            throw ex;
+        }
+        log.error("Request failed: {}", ex.getMessage());
+        return SOMETHING_WENT_WRONG;
+    }
+
+    private static void bindCounter(MeterRegistry registry, Class<? extends RuntimeException> type, LongAdder count) {
+        FunctionCounter.builder("webrise.exceptions", count, LongAdder::sum)
+                .tag("exception", type.getSimpleName())
+                .register(registry);
+    }
+
+    private static ResponseEntity<ResponseToWeb> prebuilt(String message, HttpStatus status) {
+        return ResponseEntity.status(status).body(new ResponseToWeb(message, status.value()));
+    }
+}
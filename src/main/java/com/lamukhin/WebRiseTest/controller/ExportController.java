@@ -0,0 +1,59 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import com.lamukhin.WebRiseTest.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.ToLongFunction;
+
+@RestController
+@RequestMapping("/api/export")
+@Profile("!reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping(value = "/users", produces = NDJSON)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        stream(response, exportService::exportUsers);
+    }
+
+    @GetMapping(value = "/subscriptions", produces = NDJSON)
+    public void exportSubscriptions(HttpServletResponse response) throws IOException {
+        stream(response, exportService::exportSubscriptions);
+    }
+
+    private void stream(HttpServletResponse response, ToLongFunction<OutputStream> export) throws IOException {
+        response.setContentType(NDJSON);
+        try {
+            long exported = export.applyAsLong(response.getOutputStream());
+            log.info("Exported {} rows", exported);
+        } catch (RuntimeException ex) {
+            if (response.isCommitted()) {
+                log.error("Export interrupted after the response was committed: {}", ex.getMessage());
+                return;
+            }
+            response.reset();
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ResponseToWeb errorResponse = new ResponseToWeb("Something went wrong...", HttpStatus.INTERNAL_SERVER_ERROR.value());
+            objectMapper.writeValue(response.getOutputStream(), errorResponse);
+        }
+    }
+}
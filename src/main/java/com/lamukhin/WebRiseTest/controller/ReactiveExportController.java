@@ -0,0 +1,46 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.service.ReactiveSubscriptionService;
+import com.lamukhin.WebRiseTest.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@RestController
+@RequestMapping("/api/export")
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveExportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveUserService reactiveUserService;
+    private final ReactiveSubscriptionService reactiveSubscriptionService;
+
+    @GetMapping(value = "/users", produces = NDJSON)
+    public Flux<FullUserInfoDto> exportUsers() {
+        return logged(reactiveUserService.streamAllUsers());
+    }
+
+    @GetMapping(value = "/subscriptions", produces = NDJSON)
+    public Flux<FullSubscriptionInfoDto> exportSubscriptions() {
+        return logged(reactiveSubscriptionService.streamAllSubscriptions());
+    }
+
+    private <T> Flux<T> logged(Flux<T> rows) {
+        AtomicLong exported = new AtomicLong();
+        return rows
+                .doOnNext(row -> exported.incrementAndGet())
+                .doOnComplete(() -> log.info("Exported {} rows", exported.get()))
+                .doOnError(ex -> log.error("Export interrupted after {} rows: {}", exported.get(), ex.getMessage()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+final class ReactiveResponses {
+
+    private ReactiveResponses() {
+    }
+
+    static ResponseEntity<Object> ok(Object body) {
+        return ResponseEntity.status(HttpStatus.OK).body(body);
+    }
+
+    static ResponseEntity<Object> ok() {
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    static Mono<ResponseEntity<Object>> error(String message, HttpStatus status) {
+        ResponseToWeb errorResponse = new ResponseToWeb(message, status.value());
+        return Mono.just(ResponseEntity.status(status).body(errorResponse));
+    }
+}
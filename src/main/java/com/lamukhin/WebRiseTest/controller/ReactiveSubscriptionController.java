@@ -0,0 +1,68 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.EntrySubscriptionDto;
+import com.lamukhin.WebRiseTest.service.ReactiveSubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import static com.lamukhin.WebRiseTest.controller.ReactiveResponses.error;
+import static com.lamukhin.WebRiseTest.controller.ReactiveResponses.ok;
+
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveSubscriptionController {
+
+    private final ReactiveSubscriptionService reactiveSubscriptionService;
+
+    @PostMapping("/users/{id}/subscriptions")
+    public Mono<ResponseEntity<Object>> addSubscriptionToUserById(@PathVariable String id,
+                                                                  @RequestBody EntrySubscriptionDto subscription) {
+        return Mono.defer(() -> reactiveSubscriptionService.addSubscriptionByUserId(id, subscription))
+                .map(added -> ok());
+    }
+
+    @GetMapping("/users/{id}/subscriptions")
+    public Mono<ResponseEntity<Object>> getAllSubscriptionsByUserId(@PathVariable String id,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(required = false) String cursor) {
+        Mono<Object> body = limit != null || cursor != null
+                ? Mono.<Object>defer(() -> reactiveSubscriptionService.getSubscriptionsPageByUserId(id, cursor, limit))
+                : Mono.<Object>defer(() -> reactiveSubscriptionService.getAllSubscriptionsByUserId(id).collectList());
+        return body.map(ReactiveResponses::ok);
+    }
+
+    @GetMapping("/users/{id}/subscriptions/history")
+    public Mono<ResponseEntity<Object>> getSubscriptionHistoryByUserId(@PathVariable String id,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> reactiveSubscriptionService.getSubscriptionHistoryPageByUserId(id, cursor, limit))
+                .map(ReactiveResponses::ok);
+    }
+
+    @DeleteMapping("/users/{id}/subscriptions/{sub_id}")
+    public Mono<ResponseEntity<Object>> deleteSubscriptionById(@PathVariable String id,
+                                                               @PathVariable int sub_id) {
+        return Mono.defer(() -> reactiveSubscriptionService.deleteSubscriptionByIdAndUserId(id, sub_id))
+                .flatMap(amountOfDeletedSubs -> {
+                    if (amountOfDeletedSubs == 1) {
+                        return Mono.just(ok());
+                    }
+                    return error("This user doesn't have subscription with ID " + sub_id, HttpStatus.NOT_FOUND);
+                });
+    }
+
+    @GetMapping("/subscriptions/top")
+    public Mono<ResponseEntity<Object>> getTopSubscriptions(@RequestParam(defaultValue = "3") int limit) {
+        int maxLimit = reactiveSubscriptionService.getMaxTopLimit();
+        if (limit < 1 || limit > maxLimit) {
+            return error("Incorrect limit, allowed range is 1.." + maxLimit, HttpStatus.BAD_REQUEST);
+        }
+        return Mono.fromSupplier(() -> ok(reactiveSubscriptionService.getTopSubscriptions(limit)));
+    }
+}
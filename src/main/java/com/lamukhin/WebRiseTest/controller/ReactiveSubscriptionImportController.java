@@ -0,0 +1,47 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.service.SubscriptionImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+
+import static com.lamukhin.WebRiseTest.controller.ReactiveResponses.error;
+
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveSubscriptionImportController {
+
+    private static final int BODY_DEMAND = 16;
+
+    private final SubscriptionImportService subscriptionImportService;
+
+    @PostMapping(value = "/subscriptions/import", consumes = "application/x-ndjson")
+    public Mono<ResponseEntity<Object>> importSubscriptions(@RequestBody Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> {
+                    try (InputStream ndjson = DataBufferUtils.subscriberInputStream(body, BODY_DEMAND)) {
+                        return ReactiveResponses.ok(subscriptionImportService.importSubscriptions(ndjson));
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(Exception.class, ex -> {
+                    log.error("Subscription import failed: {}", ex.getMessage());
+                    return error("Something went wrong...", HttpStatus.INTERNAL_SERVER_ERROR);
+                });
+    }
+}
@@ -0,0 +1,70 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.EntryUserDto;
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import static com.lamukhin.WebRiseTest.controller.ReactiveResponses.error;
+import static com.lamukhin.WebRiseTest.controller.ReactiveResponses.ok;
+
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    @PostMapping("/users")
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody EntryUserDto newData) {
+        return Mono.defer(() -> reactiveUserService.saveNewUser(newData))
+                .map(newUserUuid -> ok(new ResponseToWeb(newUserUuid.toString(), HttpStatus.OK.value())))
+                .onErrorResume(DuplicateKeyException.class, ex -> error("User with this email already exists", HttpStatus.BAD_REQUEST));
+    }
+
+    @GetMapping("/users")
+    public Mono<ResponseEntity<Object>> getUsers(@RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> reactiveUserService.getUsersPage(cursor, limit))
+                .map(ReactiveResponses::ok);
+    }
+
+    @GetMapping("/users/{id}")
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable String id) {
+        return Mono.defer(() -> reactiveUserService.getUserById(id))
+                .map(ReactiveResponses::ok)
+                .switchIfEmpty(Mono.defer(() -> error("User is not found", HttpStatus.NOT_FOUND)));
+    }
+
+    @PutMapping("/users/{id}")
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody UpdateUserDataDto newData,
+                                                   @PathVariable String id) {
+        return Mono.defer(() -> reactiveUserService.updateUserById(id, newData))
+                .flatMap(userRowsUpdated -> {
+                    if (userRowsUpdated == 1) {
+                        return Mono.just(ok());
+                    }
+                    return error("User with this ID doesn't exist", HttpStatus.BAD_REQUEST);
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> error("User with a new email already exists", HttpStatus.BAD_REQUEST));
+    }
+
+    @DeleteMapping("/users/{id}")
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable String id) {
+        return Mono.defer(() -> reactiveUserService.deleteUserById(id))
+                .flatMap(userRowDeleted -> {
+                    if (userRowDeleted == 1) {
+                        return Mono.just(ok());
+                    }
+                    return error("User with this ID doesn't exist", HttpStatus.BAD_REQUEST);
+                });
+    }
+}
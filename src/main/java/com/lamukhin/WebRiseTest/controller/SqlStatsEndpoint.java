@@ -0,0 +1,39 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dao.SqlStatsListener;
+import com.lamukhin.WebRiseTest.dto.SqlStatementStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "sqlstats")
+@ConditionalOnProperty(value = "sql.profiler.enabled", matchIfMissing = true)
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final SqlStatsListener sqlStatsListener;
+
+    @ReadOperation
+    public List<SqlStatementStats> sqlStats(@Nullable Integer limit) {
+        List<SqlStatementStats> stats = sqlStatsListener.snapshot();
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        return stats.subList(0, Math.min(Math.max(size, 0), stats.size()));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatsListener.reset();
+        log.info("SQL statistics were reset");
+    }
+}
@@ -0,0 +1,37 @@
+package com.lamukhin.WebRiseTest.controller;
+
+import com.lamukhin.WebRiseTest.dto.ImportReport;
+import com.lamukhin.WebRiseTest.dto.ResponseToWeb;
+import com.lamukhin.WebRiseTest.service.SubscriptionImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api")
+@Profile("!reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class SubscriptionImportController {
+
+    private final SubscriptionImportService subscriptionImportService;
+
+    @PostMapping(value = "/subscriptions/import", consumes = "application/x-ndjson")
+    public ResponseEntity<?> importSubscriptions(InputStream body) {
+        try {
+            ImportReport report = subscriptionImportService.importSubscriptions(body);
+            return ResponseEntity.status(HttpStatus.OK).body(report);
+        } catch (RuntimeException ex) {
+            log.error("Subscription import failed: {}", ex.getMessage());
+            ResponseToWeb errorResponse = new ResponseToWeb("Something went wrong...", HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordMapperProvider;
+import org.jooq.RecordType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+
+public class DtoRecordMapperProvider implements RecordMapperProvider {
+
+    public static final String AMOUNT_OF_SUBSCRIBERS = "amount_of_subscribers";
+
+    private static final Field<?>[] USERS_FIELDS = USERS.fields();
+    private static final Field<?>[] SUBSCRIPTIONS_FIELDS = SUBSCRIPTIONS.fields();
+    private static final RecordMapper<Record, FullUserInfoDto> USERS_MAPPER = userMapper(USERS.recordType());
+    private static final RecordMapper<Record, FullSubscriptionInfoDto> SUBSCRIPTIONS_MAPPER = subscriptionMapper(SUBSCRIPTIONS.recordType());
+
+    private final RecordMapperProvider fallback;
+
+    public DtoRecordMapperProvider(RecordMapperProvider fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends Record, E> RecordMapper<R, E> provide(RecordType<R> recordType, Class<? extends E> type) {
+        RecordMapper<Record, ?> mapper = null;
+        if (type == FullUserInfoDto.class) {
+            mapper = sameFields(recordType, USERS_FIELDS) ? USERS_MAPPER : userMapper(recordType);
+        } else if (type == FullSubscriptionInfoDto.class) {
+            mapper = sameFields(recordType, SUBSCRIPTIONS_FIELDS) ? SUBSCRIPTIONS_MAPPER : subscriptionMapper(recordType);
+        } else if (type == TopSubscription.class) {
+            mapper = topSubscriptionMapper(recordType);
+        }
+        return mapper != null
+                ? (RecordMapper<R, E>) mapper
+                : fallback.provide(recordType, type);
+    }
+
+    public static RecordMapper<Record, FullUserInfoDto> userMapper(RecordType<?> recordType) {
+        int id = indexOf(recordType, USERS.ID);
+        int userName = indexOf(recordType, USERS.USER_NAME);
+        int email = indexOf(recordType, USERS.EMAIL);
+        int registrationTime = indexOf(recordType, USERS.REGISTRATION_TIME);
+        int subscriptionAmount = indexOf(recordType, USERS.SUBSCRIPTION_AMOUNT);
+        if (id < 0 || userName < 0 || email < 0 || registrationTime < 0 || subscriptionAmount < 0) {
+            return null;
+        }
+        return record -> new FullUserInfoDto(
+                (UUID) record.get(id),
+                (String) record.get(userName),
+                (String) record.get(email),
+                (LocalDateTime) record.get(registrationTime),
+                intOrZero(record.get(subscriptionAmount))
+        );
+    }
+
+    public static RecordMapper<Record, FullSubscriptionInfoDto> subscriptionMapper(RecordType<?> recordType) {
+        int id = indexOf(recordType, SUBSCRIPTIONS.ID);
+        int userId = indexOf(recordType, SUBSCRIPTIONS.USER_ID);
+        int serviceName = indexOf(recordType, SUBSCRIPTIONS.SERVICE_NAME);
+        int startTime = indexOf(recordType, SUBSCRIPTIONS.START_TIME);
+        int endTime = indexOf(recordType, SUBSCRIPTIONS.END_TIME);
+        if (id < 0 || userId < 0 || serviceName < 0 || startTime < 0 || endTime < 0) {
+            return null;
+        }
+        return record -> new FullSubscriptionInfoDto(
+                (Integer) record.get(id),
+                (UUID) record.get(userId),
+                (String) record.get(serviceName),
+                (LocalDateTime) record.get(startTime),
+                (LocalDateTime) record.get(endTime)
+        );
+    }
+
+    public static RecordMapper<Record, TopSubscription> topSubscriptionMapper(RecordType<?> recordType) {
+        int serviceName = indexOf(recordType, SUBSCRIPTIONS.SERVICE_NAME);
+        int amount = recordType.indexOf(AMOUNT_OF_SUBSCRIBERS);
+        if (amount < 0 && serviceName >= 0 && recordType.size() == 2) {
+            amount = 1 - serviceName;
+        }
+        if (serviceName < 0 || amount < 0 || !Number.class.isAssignableFrom(recordType.field(amount).getType())) {
+            return null;
+        }
+        int amountIndex = amount;
+        return record -> new TopSubscription(
+                (String) record.get(serviceName),
+                intOrZero(record.get(amountIndex))
+        );
+    }
+
+    private static boolean sameFields(RecordType<?> recordType, Field<?>[] fields) {
+        if (recordType.size() != fields.length) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (recordType.field(i) != fields[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(RecordType<?> recordType, Field<?> field) {
+        int index = recordType.indexOf(field);
+        if (index < 0) {
+            index = recordType.indexOf(field.getName());
+        }
+        if (index < 0 || recordType.field(index).getType() != field.getType()) {
+            return -1;
+        }
+        return index;
+    }
+
+    private static int intOrZero(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+}
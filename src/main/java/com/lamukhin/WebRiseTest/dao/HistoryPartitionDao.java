@@ -0,0 +1,121 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultDSLContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Repository
+@RequiredArgsConstructor
+public class HistoryPartitionDao {
+
+    static final String PARENT_TABLE = "subscriptions_history";
+    static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARENT_TABLE + "_(\\d{4}_\\d{2})");
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT child.relname
+            FROM pg_inherits
+                     JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                     JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = {0}
+              AND parent.relnamespace = to_regnamespace(current_schema())
+            ORDER BY child.relname
+            """;
+
+    private static final String LIST_PENDING_DETACH_SQL = """
+            SELECT child.relname
+            FROM pg_inherits
+                     JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                     JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = {0}
+              AND parent.relnamespace = to_regnamespace(current_schema())
+              AND pg_inherits.inhdetachpending
+            ORDER BY child.relname
+            """;
+
+    private final DefaultDSLContext dslContext;
+
+    public static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    // null for partitions not named by partitionName, e.g. a DEFAULT or manually attached one
+    public static YearMonth partitionMonth(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(matcher.group(1), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public List<String> listPartitions() {
+        try {
+            return dslContext
+                    .resultQuery(LIST_PARTITIONS_SQL, DSL.val(PARENT_TABLE))
+                    .fetch(0, String.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public List<String> listPendingDetach() {
+        try {
+            return dslContext
+                    .resultQuery(LIST_PENDING_DETACH_SQL, DSL.val(PARENT_TABLE))
+                    .fetch(0, String.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public void createPartition(YearMonth month) {
+        try {
+            dslContext.execute("CREATE TABLE IF NOT EXISTS {0} PARTITION OF {1} FOR VALUES FROM ({2}) TO ({3})",
+                    DSL.name(partitionName(month)),
+                    DSL.name(PARENT_TABLE),
+                    DSL.inline(month.atDay(1).atStartOfDay()),
+                    DSL.inline(month.plusMonths(1).atDay(1).atStartOfDay()));
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public void detachPartition(String partition) {
+        try {
+            dslContext.execute("ALTER TABLE {0} DETACH PARTITION {1} CONCURRENTLY",
+                    DSL.name(PARENT_TABLE), DSL.name(partition));
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public void finalizeDetach(String partition) {
+        try {
+            dslContext.execute("ALTER TABLE {0} DETACH PARTITION {1} FINALIZE",
+                    DSL.name(PARENT_TABLE), DSL.name(partition));
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public void dropTable(String table) {
+        try {
+            dslContext.execute("DROP TABLE IF EXISTS {0}", DSL.name(table));
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.jooq.impl.DefaultRecordMapperProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jooq.DefaultConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class JooqConfig {
+
+    @Bean
+    public DefaultConfigurationCustomizer dtoRecordMapperCustomizer() {
+        return configuration -> configuration.set(
+                new DtoRecordMapperProvider(new DefaultRecordMapperProvider(configuration)));
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "sql.profiler.enabled", matchIfMissing = true)
+    public SqlStatsListener sqlStatsListener(@Value("${sql.profiler.slow-threshold:PT0.1S}") Duration slowThreshold,
+                                             @Value("${sql.profiler.max-statements:1000}") int maxStatements) {
+        return new SqlStatsListener(slowThreshold, maxStatements);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "sql.profiler.enabled", matchIfMissing = true)
+    public ExecuteListenerProvider sqlStatsListenerProvider(SqlStatsListener sqlStatsListener) {
+        return new DefaultExecuteListenerProvider(sqlStatsListener);
+    }
+}
@@ -0,0 +1,105 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.generated.tables.records.SubscriptionsRecord;
+import com.lamukhin.generated.tables.records.UsersRecord;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Query;
+import org.jooq.ResultQuery;
+import org.jooq.SQLDialect;
+import org.jooq.conf.ParamCastMode;
+import org.jooq.conf.ParamType;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+
+/**
+ * Fixed-shape hot queries, rendered from the jOOQ DSL once at class load. Executing them as plain SQL skips
+ * building and rendering the query tree on every call, and the identical text keeps hitting pgjdbc's
+ * per-connection cache of server-side prepared statements.
+ */
+public final class QueryCatalog {
+
+    private static final DSLContext RENDERER = DSL.using(SQLDialect.POSTGRES, new Settings()
+            .withParamType(ParamType.INDEXED)
+            .withParamCastMode(ParamCastMode.NEVER));
+
+    static final String USER_BY_ID_SQL = render(DSL
+            .selectFrom(USERS)
+            .where(USERS.ID.eq(param(USERS.ID))));
+
+    static final String USERS_FIRST_PAGE_SQL = render(DSL
+            .selectFrom(USERS)
+            .orderBy(USERS.REGISTRATION_TIME, USERS.ID)
+            .limit(DSL.param("limit", SQLDataType.INTEGER)));
+
+    static final String USERS_PAGE_AFTER_SQL = render(DSL
+            .selectFrom(USERS)
+            .where(DSL.row(USERS.REGISTRATION_TIME, USERS.ID).gt(param(USERS.REGISTRATION_TIME), param(USERS.ID)))
+            .orderBy(USERS.REGISTRATION_TIME, USERS.ID)
+            .limit(DSL.param("limit", SQLDataType.INTEGER)));
+
+    static final String SUBSCRIPTIONS_BY_USER_ID_SQL = render(DSL
+            .selectFrom(SUBSCRIPTIONS)
+            .where(SUBSCRIPTIONS.USER_ID.eq(param(SUBSCRIPTIONS.USER_ID))));
+
+    static final String SUBSCRIPTIONS_FIRST_PAGE_SQL = render(DSL
+            .selectFrom(SUBSCRIPTIONS)
+            .where(SUBSCRIPTIONS.USER_ID.eq(param(SUBSCRIPTIONS.USER_ID)))
+            .orderBy(SUBSCRIPTIONS.ID)
+            .limit(DSL.param("limit", SQLDataType.INTEGER)));
+
+    static final String SUBSCRIPTIONS_PAGE_AFTER_SQL = render(DSL
+            .selectFrom(SUBSCRIPTIONS)
+            .where(SUBSCRIPTIONS.USER_ID.eq(param(SUBSCRIPTIONS.USER_ID)))
+            .and(SUBSCRIPTIONS.ID.gt(param(SUBSCRIPTIONS.ID)))
+            .orderBy(SUBSCRIPTIONS.ID)
+            .limit(DSL.param("limit", SQLDataType.INTEGER)));
+
+    private QueryCatalog() {
+    }
+
+    public static ResultQuery<UsersRecord> userById(DSLContext dsl, UUID id) {
+        return dsl.resultQuery(USER_BY_ID_SQL, DSL.val(id, USERS.ID)).coerce(USERS);
+    }
+
+    public static ResultQuery<UsersRecord> usersPage(DSLContext dsl, LocalDateTime afterRegistrationTime,
+                                                     UUID afterId, int limit) {
+        if (afterId == null) {
+            return dsl.resultQuery(USERS_FIRST_PAGE_SQL, DSL.val(limit)).coerce(USERS);
+        }
+        return dsl.resultQuery(USERS_PAGE_AFTER_SQL,
+                        DSL.val(afterRegistrationTime, USERS.REGISTRATION_TIME), DSL.val(afterId, USERS.ID), DSL.val(limit))
+                .coerce(USERS);
+    }
+
+    public static ResultQuery<SubscriptionsRecord> subscriptionsByUserId(DSLContext dsl, UUID userId) {
+        return dsl.resultQuery(SUBSCRIPTIONS_BY_USER_ID_SQL, DSL.val(userId, SUBSCRIPTIONS.USER_ID)).coerce(SUBSCRIPTIONS);
+    }
+
+    public static ResultQuery<SubscriptionsRecord> subscriptionsPage(DSLContext dsl, UUID userId, Integer afterId,
+                                                                     int limit) {
+        if (afterId == null) {
+            return dsl.resultQuery(SUBSCRIPTIONS_FIRST_PAGE_SQL, DSL.val(userId, SUBSCRIPTIONS.USER_ID), DSL.val(limit))
+                    .coerce(SUBSCRIPTIONS);
+        }
+        return dsl.resultQuery(SUBSCRIPTIONS_PAGE_AFTER_SQL,
+                        DSL.val(userId, SUBSCRIPTIONS.USER_ID), DSL.val(afterId, SUBSCRIPTIONS.ID), DSL.val(limit))
+                .coerce(SUBSCRIPTIONS);
+    }
+
+    private static <T> Param<T> param(Field<T> field) {
+        return DSL.param(field.getName(), field.getDataType());
+    }
+
+    private static String render(Query query) {
+        return RENDERER.render(query);
+    }
+}
@@ -0,0 +1,142 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.datasource.ReactiveDatabase;
+import com.lamukhin.WebRiseTest.dto.ArchivedSubscriptionDto;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import lombok.RequiredArgsConstructor;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.lamukhin.WebRiseTest.dao.SubscriptionDao.UPSERT_SUBSCRIPTION_SQL;
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.SubscriptionsHistory.SUBSCRIPTIONS_HISTORY;
+import static com.lamukhin.generated.tables.Users.USERS;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveSubscriptionDao {
+
+    private final ReactiveDatabase reactiveDatabase;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+    private final UserCache userCache;
+    private final InvalidationPublisher invalidationPublisher;
+
+    public Mono<SubscriptionUpsertResult> upsertSubscription(FullSubscriptionInfoDto subscription) {
+        return Mono.from(dsl()
+                        .resultQuery(UPSERT_SUBSCRIPTION_SQL,
+                                DSL.val(subscription.userId()),
+                                DSL.val(subscription.serviceName()),
+                                DSL.val(subscription.startTime()),
+                                DSL.val(subscription.endTime())))
+                .flatMap(result -> toUpsertResult(subscription, result))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Mono<FullSubscriptionInfoDto> getSubscriptionByUserIdAndName(UUID userUuid, String serviceName) {
+        return Mono.from(dsl()
+                        .selectFrom(SUBSCRIPTIONS)
+                        .where(SUBSCRIPTIONS.USER_ID.eq(userUuid))
+                        .and(SUBSCRIPTIONS.SERVICE_NAME.eq(serviceName)))
+                .map(record -> record.into(FullSubscriptionInfoDto.class))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Flux<FullSubscriptionInfoDto> getAllSubscriptionsByUserId(UUID userUuid) {
+        return Flux.from(QueryCatalog.subscriptionsByUserId(dsl(), userUuid))
+                .map(record -> record.into(FullSubscriptionInfoDto.class))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Flux<FullSubscriptionInfoDto> getSubscriptionsPageByUserId(UUID userUuid, Integer afterId, int limit) {
+        return Flux.from(QueryCatalog.subscriptionsPage(dsl(), userUuid, afterId, limit))
+                .map(record -> record.into(FullSubscriptionInfoDto.class))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Flux<ArchivedSubscriptionDto> getSubscriptionHistoryPageByUserId(UUID userUuid, Integer afterId, int limit) {
+        return Flux.from(dsl()
+                        .selectFrom(SUBSCRIPTIONS_HISTORY)
+                        .where(SUBSCRIPTIONS_HISTORY.USER_ID.eq(userUuid))
+                        .and(afterId == null ? DSL.noCondition() : SUBSCRIPTIONS_HISTORY.ID.gt(afterId))
+                        .orderBy(SUBSCRIPTIONS_HISTORY.ID)
+                        .limit(limit))
+                .map(record -> record.into(ArchivedSubscriptionDto.class))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Flux<FullSubscriptionInfoDto> streamAllSubscriptions() {
+        return Flux.from(dsl().selectFrom(SUBSCRIPTIONS))
+                .map(record -> record.into(FullSubscriptionInfoDto.class))
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    public Mono<Integer> deleteSubscriptionByIdAndUser(FullUserInfoDto user, int subId) {
+        Mono<String> deletedServiceName = Mono.from(dsl().transactionPublisher(trx -> Mono
+                .from(trx.dsl()
+                        .deleteFrom(SUBSCRIPTIONS)
+                        .where(SUBSCRIPTIONS.USER_ID.eq(user.id()))
+                        .and(SUBSCRIPTIONS.ID.eq(subId))
+                        .returningResult(SUBSCRIPTIONS.SERVICE_NAME))
+                .flatMap(deleted -> Mono
+                        .from(trx.dsl()
+                                .update(USERS)
+                                .set(USERS.SUBSCRIPTION_AMOUNT, USERS.SUBSCRIPTION_AMOUNT.minus(1))
+                                .where(USERS.ID.eq(user.id())))
+                        .thenReturn(deleted.value1()))));
+        return deletedServiceName
+                .map(serviceName -> {
+                    userCache.invalidate(user.id());
+                    subscriptionLeaderboard.decrement(serviceName);
+                    invalidationPublisher.publishSubscriptionsChanged(user.id(), serviceName, -1);
+                    return 1;
+                })
+                .defaultIfEmpty(0)
+                .onErrorMap(ReactiveSubscriptionDao::toDataAccessException);
+    }
+
+    private Mono<SubscriptionUpsertResult> toUpsertResult(FullSubscriptionInfoDto subscription, Record result) {
+        if (!result.get("user_found", Boolean.class)) {
+            return Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.USER_NOT_FOUND, null));
+        }
+        Boolean created = result.get("created", Boolean.class);
+        if (created == null) {
+            LocalDateTime activeUntil = result.get("active_until", LocalDateTime.class);
+            Mono<LocalDateTime> until = activeUntil != null
+                    ? Mono.just(activeUntil)
+                    : getSubscriptionByUserIdAndName(subscription.userId(), subscription.serviceName())
+                    .map(FullSubscriptionInfoDto::endTime);
+            return until.map(time -> new SubscriptionUpsertResult(SubscriptionUpsertStatus.STILL_ACTIVE, time));
+        }
+        if (created) {
+            userCache.invalidate(subscription.userId());
+            subscriptionLeaderboard.increment(subscription.serviceName());
+            invalidationPublisher.publishSubscriptionsChanged(subscription.userId(), subscription.serviceName(), 1);
+            return Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.CREATED, subscription.endTime()));
+        }
+        return Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.RENEWED, subscription.endTime()));
+    }
+
+    private DSLContext dsl() {
+        return reactiveDatabase.dsl();
+    }
+
+    private static Throwable toDataAccessException(Throwable e) {
+        return e instanceof DataAccessException ? e : new DataAccessException(e.getMessage(), e);
+    }
+}
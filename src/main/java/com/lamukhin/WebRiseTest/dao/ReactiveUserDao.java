@@ -0,0 +1,110 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.datasource.ReactiveDatabase;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import lombok.RequiredArgsConstructor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Users.USERS;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserDao {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final ReactiveDatabase reactiveDatabase;
+    private final InvalidationPublisher invalidationPublisher;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+
+    public Mono<Boolean> saveNewUser(FullUserInfoDto newUser) {
+        return Mono.from(dsl()
+                        .insertInto(USERS)
+                        .columns(USERS.ID, USERS.USER_NAME, USERS.EMAIL, USERS.REGISTRATION_TIME, USERS.SUBSCRIPTION_AMOUNT)
+                        .values(newUser.id(), newUser.userName(), newUser.email(), newUser.registrationTime(), newUser.subscriptionAmount())
+                        .onConflict(USERS.EMAIL)
+                        .doNothing()
+                        .returningResult(USERS.ID))
+                .map(inserted -> true)
+                .defaultIfEmpty(false)
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    public Mono<FullUserInfoDto> findUserById(UUID id) {
+        return Mono.from(QueryCatalog.userById(dsl(), id))
+                .map(record -> record.into(FullUserInfoDto.class))
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    public Mono<Integer> updateUserById(UUID id, UpdateUserDataDto newData) {
+        Map<Field<?>, Object> fieldsToUpdate = new HashMap<>();
+        fieldsToUpdate.put(USERS.USER_NAME, newData.userName());
+        fieldsToUpdate.put(USERS.SUBSCRIPTION_AMOUNT, newData.subscriptionAmount());
+        if (newData.newEmail() != null) {
+            fieldsToUpdate.put(USERS.EMAIL, newData.newEmail());
+        }
+        return Mono.from(dsl()
+                        .update(USERS)
+                        .set(fieldsToUpdate)
+                        .where(USERS.ID.eq(id)))
+                .doOnNext(updated -> invalidationPublisher.publishUserChanged(id))
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    public Mono<Integer> deleteUserById(UUID userUuid) {
+        return Mono.from(dsl().resultQuery(UserDao.DELETE_USER_SQL, DSL.val(userUuid)))
+                .map(result -> {
+                    for (String service : result.get("services", String[].class)) {
+                        subscriptionLeaderboard.decrement(service);
+                        invalidationPublisher.publishSubscriptionsChanged(userUuid, service, -1);
+                    }
+                    invalidationPublisher.publishUserChanged(userUuid);
+                    return result.get("deleted", Integer.class);
+                })
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    public Flux<FullUserInfoDto> getUsersPage(LocalDateTime afterRegistrationTime, UUID afterId, int limit) {
+        return Flux.from(QueryCatalog.usersPage(dsl(), afterRegistrationTime, afterId, limit))
+                .map(record -> record.into(FullUserInfoDto.class))
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    public Flux<FullUserInfoDto> streamAllUsers() {
+        return Flux.from(dsl().selectFrom(USERS))
+                .map(record -> record.into(FullUserInfoDto.class))
+                .onErrorMap(ReactiveUserDao::toDataAccessException);
+    }
+
+    private DSLContext dsl() {
+        return reactiveDatabase.dsl();
+    }
+
+    private static Throwable toDataAccessException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcDataIntegrityViolationException violation
+                    && UNIQUE_VIOLATION.equals(violation.getSqlState())) {
+                return new DuplicateKeyException(violation.getMessage(), e);
+            }
+        }
+        return e instanceof DataAccessException ? e : new DataAccessException(e.getMessage(), e);
+    }
+}
@@ -0,0 +1,144 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.dto.SqlStatementStats;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.Param;
+import org.jooq.Query;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class SqlStatsListener implements ExecuteListener {
+
+    static final String OTHER_STATEMENTS = "<other statements>";
+
+    private static final Pattern EMAIL = Pattern.compile("([^\\s@\"',\\[]{1,2})[^\\s@\"',\\[]*@");
+    private static final Object START = new Object();
+    private static final Object ROWS = new Object();
+
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+
+    public SqlStatsListener(Duration slowThreshold, int maxStatements) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(START, System.nanoTime());
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        long[] rows = (long[]) ctx.data(ROWS);
+        if (rows == null) {
+            ctx.data(ROWS, new long[]{1});
+        } else {
+            rows[0]++;
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Long start = (Long) ctx.data(START);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        String sql = normalizedSql(ctx);
+        if (sql == null) {
+            return;
+        }
+        long[] fetched = (long[]) ctx.data(ROWS);
+        long rows = fetched != null ? fetched[0] : Math.max(ctx.rows(), 0);
+        statsFor(sql).record(elapsed, rows, ctx.exception() != null);
+        if (elapsed >= slowThresholdNanos) {
+            log.warn("Slow SQL ({} ms, {} rows): {} with binds {}",
+                    elapsed / 1_000_000, rows, sql, maskEmails(bindValues(ctx.query())));
+        }
+    }
+
+    public List<SqlStatementStats> snapshot() {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SqlStatementStats::totalMs).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public static String maskEmails(String value) {
+        return EMAIL.matcher(value).replaceAll("$1***@");
+    }
+
+    private StatementStats statsFor(String sql) {
+        StatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= maxStatements) {
+            return statements.computeIfAbsent(OTHER_STATEMENTS, key -> new StatementStats());
+        }
+        return statements.computeIfAbsent(sql, key -> new StatementStats());
+    }
+
+    private static String normalizedSql(ExecuteContext ctx) {
+        if (ctx.sql() != null) {
+            return ctx.sql();
+        }
+        String[] batch = ctx.batchSQL();
+        return batch.length == 0 || batch[0] == null ? null : String.join(";\n", batch);
+    }
+
+    private static String bindValues(Query query) {
+        if (query == null) {
+            return "[]";
+        }
+        return query.getParams().values().stream()
+                .filter(param -> !param.isInline())
+                .map(Param::getValue)
+                .map(String::valueOf)
+                .toList()
+                .toString();
+    }
+
+    private static final class StatementStats {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long elapsedNanos, long fetchedRows, boolean failed) {
+            executions.increment();
+            totalNanos.add(elapsedNanos);
+            rows.add(fetchedRows);
+            if (failed) {
+                errors.increment();
+            }
+            if (elapsedNanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            }
+        }
+
+        SqlStatementStats toDto(String sql) {
+            long count = executions.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new SqlStatementStats(sql, count, errors.sum(), rows.sum(), totalMs,
+                    count == 0 ? 0 : totalMs / count, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
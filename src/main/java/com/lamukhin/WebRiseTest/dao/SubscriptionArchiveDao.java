@@ -0,0 +1,65 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import lombok.RequiredArgsConstructor;
+import org.jooq.Condition;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultDSLContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionArchiveDao {
+
+    static final String ARCHIVE_BATCH_SQL = """
+            WITH batch AS (
+                SELECT user_id, id
+                FROM subscriptions
+                WHERE end_time < {0}
+                  AND {1}
+                ORDER BY end_time, id
+                LIMIT {2}
+                FOR UPDATE SKIP LOCKED
+            ), moved AS (
+                DELETE FROM subscriptions s
+                USING batch
+                WHERE s.user_id = batch.user_id
+                  AND s.id = batch.id
+                RETURNING s.id, s.user_id, s.service_name, s.start_time, s.end_time
+            ), archived AS (
+                INSERT INTO subscriptions_history (id, user_id, service_name, start_time, end_time)
+                SELECT id, user_id, service_name, start_time, end_time FROM moved
+            ), counted AS (
+                UPDATE users u
+                SET subscription_amount = coalesce(u.subscription_amount, 0) - m.amount
+                FROM (SELECT user_id, count(*) AS amount FROM moved GROUP BY user_id) m
+                WHERE u.id = m.user_id
+            )
+            SELECT id, user_id, service_name, start_time, end_time
+            FROM moved
+            ORDER BY end_time, id
+            """;
+
+    private final DefaultDSLContext dslContext;
+
+    public List<FullSubscriptionInfoDto> archiveExpiredBatch(LocalDateTime expiredBefore,
+                                                             FullSubscriptionInfoDto after,
+                                                             int batchSize) {
+        Condition afterLast = after == null
+                ? DSL.noCondition()
+                : DSL.row(SUBSCRIPTIONS.END_TIME, SUBSCRIPTIONS.ID).gt(after.endTime(), after.id());
+        try {
+            return dslContext
+                    .resultQuery(ARCHIVE_BATCH_SQL, DSL.val(expiredBefore), afterLast, DSL.inline(batchSize))
+                    .fetchInto(FullSubscriptionInfoDto.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+}
@@ -1,48 +1,196 @@
 package com.lamukhin.WebRiseTest.dao;
 
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRead;
+import com.lamukhin.WebRiseTest.datasource.UserWrite;
+import com.lamukhin.WebRiseTest.dto.ArchivedSubscriptionDto;
 import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
-import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultDSLContext;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.SubscriptionsHistory.SUBSCRIPTIONS_HISTORY;
 import static com.lamukhin.generated.tables.Users.USERS;
 
 @Repository
 @RequiredArgsConstructor
+@Timed("webrise.dao")
 @Slf4j
 public class SubscriptionDao {
 
+    static final String UPSERT_SUBSCRIPTION_SQL = """
+            WITH found_user AS (
+                SELECT id FROM users WHERE id = {0}
+            ), upserted AS (
+                INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+                SELECT id, {1}, {2}, {3} FROM found_user
+                ON CONFLICT (user_id, service_name) DO UPDATE
+                    SET start_time = EXCLUDED.start_time,
+                        end_time   = EXCLUDED.end_time
+                    WHERE subscriptions.end_time <= EXCLUDED.start_time
+                RETURNING (xmax = 0) AS created
+            ), counted AS (
+                UPDATE users
+                SET subscription_amount = coalesce(subscription_amount, 0) + 1
+                WHERE id = {0}
+                  AND EXISTS (SELECT 1 FROM upserted WHERE created)
+            )
+            SELECT EXISTS (SELECT 1 FROM found_user) AS user_found,
+                   (SELECT created FROM upserted)     AS created,
+                   (SELECT end_time
+                    FROM subscriptions
+                    WHERE user_id = {0}
+                      AND service_name = {1})        AS active_until
+            """;
+
+    static final String UPSERT_SUBSCRIPTIONS_BATCH_SQL = """
+            WITH input AS (
+                SELECT *
+                FROM unnest({0}::int[], {1}::uuid[], {2}::text[], {3}::timestamp[], {4}::timestamp[])
+                         AS t (ord, user_id, service_name, start_time, end_time)
+            ), found AS (
+                SELECT input.*
+                FROM input
+                         JOIN users ON users.id = input.user_id
+            ), upserted AS (
+                INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+                SELECT user_id, service_name, start_time, end_time
+                FROM found
+                ORDER BY user_id, service_name
+                ON CONFLICT (user_id, service_name) DO UPDATE
+                    SET start_time = EXCLUDED.start_time,
+                        end_time   = EXCLUDED.end_time
+                    WHERE subscriptions.end_time <= EXCLUDED.start_time
+                RETURNING user_id, service_name, (xmax = 0) AS created
+            ), counted AS (
+                UPDATE users u
+                SET subscription_amount = coalesce(u.subscription_amount, 0) + c.amount
+                FROM (SELECT user_id, count(*) AS amount FROM upserted WHERE created GROUP BY user_id) c
+                WHERE u.id = c.user_id
+            )
+            SELECT input.ord,
+                   EXISTS (SELECT 1 FROM found WHERE found.ord = input.ord) AS user_found,
+                   upserted.created,
+                   (SELECT s.end_time
+                    FROM subscriptions s
+                    WHERE s.user_id = input.user_id
+                      AND s.service_name = input.service_name)              AS active_until
+            FROM input
+                     LEFT JOIN upserted ON upserted.user_id = input.user_id
+                AND upserted.service_name IS NOT DISTINCT FROM input.service_name
+            ORDER BY input.ord
+            """;
+
     private final DefaultDSLContext dslContext;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+    private final UserCache userCache;
+    private final InvalidationPublisher invalidationPublisher;
 
-    @Transactional
-    public int addNewSubscriptionByUser(FullUserInfoDto user, FullSubscriptionInfoDto subscription) {
+    @UserWrite
+    public SubscriptionUpsertResult upsertSubscription(FullSubscriptionInfoDto subscription) {
         try {
-            dslContext
-                    .update(USERS)
-                    .set(USERS.SUBSCRIPTION_AMOUNT, user.subscriptionAmount() + 1)
-                    .where(USERS.ID.eq(user.id()))
-                    .execute();
+            Record result = dslContext
+                    .resultQuery(UPSERT_SUBSCRIPTION_SQL,
+                            DSL.val(subscription.userId()),
+                            DSL.val(subscription.serviceName()),
+                            DSL.val(subscription.startTime()),
+                            DSL.val(subscription.endTime()))
+                    .fetchOne();
+            return toUpsertResult(subscription, result);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
 
-            return dslContext
-                    .insertInto(SUBSCRIPTIONS)
-                    .columns(SUBSCRIPTIONS.USER_ID, SUBSCRIPTIONS.SERVICE_NAME, SUBSCRIPTIONS.START_TIME, SUBSCRIPTIONS.END_TIME)
-                    .values(user.id(), subscription.serviceName(), subscription.startTime(), subscription.endTime())
-                    .execute();
+    private SubscriptionUpsertResult toUpsertResult(FullSubscriptionInfoDto subscription, Record result) {
+        if (!result.get("user_found", Boolean.class)) {
+            return new SubscriptionUpsertResult(SubscriptionUpsertStatus.USER_NOT_FOUND, null);
+        }
+        Boolean created = result.get("created", Boolean.class);
+        if (created == null) {
+            LocalDateTime activeUntil = result.get("active_until", LocalDateTime.class);
+            if (activeUntil == null) {
+                activeUntil = getSubscriptionByUserIdAndName(subscription.userId(), subscription.serviceName()).endTime();
+            }
+            return new SubscriptionUpsertResult(SubscriptionUpsertStatus.STILL_ACTIVE, activeUntil);
+        }
+        if (created) {
+            afterCommit(() -> {
+                userCache.invalidate(subscription.userId());
+                subscriptionLeaderboard.increment(subscription.serviceName());
+            });
+            invalidationPublisher.publishSubscriptionsChanged(subscription.userId(), subscription.serviceName(), 1);
+            return new SubscriptionUpsertResult(SubscriptionUpsertStatus.CREATED, subscription.endTime());
+        }
+        return new SubscriptionUpsertResult(SubscriptionUpsertStatus.RENEWED, subscription.endTime());
+    }
+
+    @UserWrite
+    public List<SubscriptionUpsertResult> upsertSubscriptions(List<FullSubscriptionInfoDto> subscriptions) {
+        int size = subscriptions.size();
+        Integer[] ords = new Integer[size];
+        UUID[] userIds = new UUID[size];
+        String[] serviceNames = new String[size];
+        LocalDateTime[] startTimes = new LocalDateTime[size];
+        LocalDateTime[] endTimes = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            FullSubscriptionInfoDto subscription = subscriptions.get(i);
+            ords[i] = i;
+            userIds[i] = subscription.userId();
+            serviceNames[i] = subscription.serviceName();
+            startTimes[i] = subscription.startTime();
+            endTimes[i] = subscription.endTime();
+        }
+        try {
+            List<SubscriptionUpsertResult> results = new ArrayList<>(size);
+            for (Record result : dslContext.resultQuery(UPSERT_SUBSCRIPTIONS_BATCH_SQL,
+                    DSL.val(ords), DSL.val(userIds), DSL.val(serviceNames), DSL.val(startTimes), DSL.val(endTimes)).fetch()) {
+                FullSubscriptionInfoDto subscription = subscriptions.get(result.get("ord", Integer.class));
+                results.add(toUpsertResult(subscription, result));
+            }
+            return results;
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     public FullSubscriptionInfoDto getSubscriptionByUserIdAndName(UUID userUuid, String serviceName) {
         try {
             return dslContext
@@ -55,60 +203,90 @@ public class SubscriptionDao {
         }
     }
 
+    @ReplicaRead
+    public Collection<FullSubscriptionInfoDto> getAllSubscriptionsByUserId(UUID userUuid) {
+        try {
+            return QueryCatalog.subscriptionsByUserId(dslContext, userUuid)
+                    .fetchInto(FullSubscriptionInfoDto.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
 
-    public int updateSubscriptionByNameAndUserId(UUID userUuid, FullSubscriptionInfoDto fullInfo) {
+    @ReplicaRead
+    public List<FullSubscriptionInfoDto> getSubscriptionsPageByUserId(UUID userUuid, Integer afterId, int limit) {
         try {
-            return dslContext
-                    .update(SUBSCRIPTIONS)
-                    .set(SUBSCRIPTIONS.START_TIME, fullInfo.startTime())
-                    .set(SUBSCRIPTIONS.END_TIME, fullInfo.endTime())
-                    .where(SUBSCRIPTIONS.USER_ID.eq(userUuid))
-                    .and(SUBSCRIPTIONS.SERVICE_NAME.eq(fullInfo.serviceName()))
-                    .execute();
+            return QueryCatalog.subscriptionsPage(dslContext, userUuid, afterId, limit)
+                    .fetchInto(FullSubscriptionInfoDto.class);
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
-    public Collection<FullSubscriptionInfoDto> getAllSubscriptionsByUserId(UUID userUuid) {
+    @ReplicaRead
+    public List<ArchivedSubscriptionDto> getSubscriptionHistoryPageByUserId(UUID userUuid, Integer afterId, int limit) {
         try {
             return dslContext
-                    .selectFrom(SUBSCRIPTIONS)
-                    .where(SUBSCRIPTIONS.USER_ID.eq(userUuid))
-                    .fetchInto(FullSubscriptionInfoDto.class);
+                    .selectFrom(SUBSCRIPTIONS_HISTORY)
+                    .where(SUBSCRIPTIONS_HISTORY.USER_ID.eq(userUuid))
+                    .and(afterId == null ? DSL.noCondition() : SUBSCRIPTIONS_HISTORY.ID.gt(afterId))
+                    .orderBy(SUBSCRIPTIONS_HISTORY.ID)
+                    .limit(limit)
+                    .fetchInto(ArchivedSubscriptionDto.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllSubscriptions(int fetchSize, Consumer<FullSubscriptionInfoDto> consumer) {
+        try (var cursor = dslContext.selectFrom(SUBSCRIPTIONS).fetchSize(fetchSize).fetchLazy()) {
+            for (var record : cursor) {
+                consumer.accept(record.into(FullSubscriptionInfoDto.class));
+            }
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
+    @UserWrite
     @Transactional
     public int deleteSubscriptionByIdAndUser(FullUserInfoDto user, int subId) {
         try {
+            Record1<String> deleted = dslContext
+                    .deleteFrom(SUBSCRIPTIONS)
+                    .where(SUBSCRIPTIONS.USER_ID.eq(user.id()))
+                    .and(SUBSCRIPTIONS.ID.eq(subId))
+                    .returningResult(SUBSCRIPTIONS.SERVICE_NAME)
+                    .fetchOne();
+            if (deleted == null) {
+                return 0;
+            }
+
             dslContext
                     .update(USERS)
-                    .set(USERS.SUBSCRIPTION_AMOUNT, user.subscriptionAmount() - 1)
+                    .set(USERS.SUBSCRIPTION_AMOUNT, USERS.SUBSCRIPTION_AMOUNT.minus(1))
                     .where(USERS.ID.eq(user.id()))
                     .execute();
 
-            return dslContext
-                    .deleteFrom(SUBSCRIPTIONS)
-                    .where(SUBSCRIPTIONS.USER_ID.eq(user.id()))
-                    .and(SUBSCRIPTIONS.ID.eq(subId))
-                    .execute();
+            userCache.invalidateAfterCommit(user.id());
+            afterCommit(() -> subscriptionLeaderboard.decrement(deleted.value1()));
+            invalidationPublisher.publishSubscriptionsChanged(user.id(), deleted.value1(), -1);
+            return 1;
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
-    public Collection<TopSubscription> getTopThreeSubscription() {
+    public Map<String, Integer> getSubscribersByService() {
+        Field<Integer> subscribers = DSL.count(SUBSCRIPTIONS.USER_ID);
         try {
             return dslContext
-                    .select(SUBSCRIPTIONS.SERVICE_NAME, DSL.count(SUBSCRIPTIONS.USER_ID))
+                    .select(SUBSCRIPTIONS.SERVICE_NAME, subscribers)
                     .from(SUBSCRIPTIONS)
+                    .where(SUBSCRIPTIONS.SERVICE_NAME.isNotNull())
                     .groupBy(SUBSCRIPTIONS.SERVICE_NAME)
-                    .orderBy(DSL.count(SUBSCRIPTIONS.USER_ID).desc())
-                    .limit(3)
-                    .fetchInto(TopSubscription.class);
+                    .fetchMap(SUBSCRIPTIONS.SERVICE_NAME, subscribers);
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
@@ -0,0 +1,182 @@
+package com.lamukhin.WebRiseTest.dao;
+
+import com.lamukhin.WebRiseTest.dto.ImportReject;
+import com.lamukhin.WebRiseTest.dto.ImportedSubscription;
+import lombok.RequiredArgsConstructor;
+import org.jooq.Cursor;
+import org.jooq.Record;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultDSLContext;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.lamukhin.generated.tables.Users.USERS;
+
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionImportDao {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE subscriptions_import
+            (
+                line_no      BIGINT,
+                user_id      UUID,
+                service_name TEXT,
+                start_time   TIMESTAMP,
+                end_time     TIMESTAMP
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY subscriptions_import (line_no, user_id, service_name, start_time, end_time) FROM STDIN";
+
+    // Users are checked again and locked here: one deleted after staging would otherwise fail the FK and the whole import.
+    private static final String MERGE_STAGING_SQL = """
+            WITH ranked AS (
+                SELECT line_no, user_id, service_name, start_time, end_time,
+                       row_number() OVER (PARTITION BY user_id, service_name ORDER BY line_no) AS rn
+                FROM subscriptions_import
+            ), live_users AS (
+                SELECT id
+                FROM users
+                WHERE id IN (SELECT DISTINCT user_id FROM subscriptions_import)
+                FOR KEY SHARE
+            ), inserted AS (
+                INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+                SELECT r.user_id, r.service_name, r.start_time, r.end_time
+                FROM ranked r
+                         JOIN live_users lu ON lu.id = r.user_id
+                WHERE r.rn = 1
+                ON CONFLICT (user_id, service_name) DO NOTHING
+                RETURNING user_id, service_name
+            )
+            SELECT r.line_no,
+                   CASE
+                       WHEN lu.id IS NULL THEN 'User is not found'
+                       WHEN r.rn > 1 THEN 'Duplicate subscription in import'
+                       ELSE 'Subscription already exists'
+                       END AS reason
+            FROM ranked r
+                     LEFT JOIN live_users lu ON lu.id = r.user_id
+                     LEFT JOIN inserted i ON i.user_id = r.user_id AND i.service_name = r.service_name
+            WHERE lu.id IS NULL
+               OR r.rn > 1
+               OR i.user_id IS NULL
+            ORDER BY r.line_no
+            """;
+
+    private static final String RECOUNT_SUBSCRIPTIONS_SQL = """
+            UPDATE users u
+            SET subscription_amount = counted.amount
+            FROM (SELECT s.user_id, count(*) AS amount
+                  FROM subscriptions s
+                  WHERE s.user_id IN (SELECT DISTINCT user_id FROM subscriptions_import)
+                  GROUP BY s.user_id) counted
+            WHERE u.id = counted.user_id
+            """;
+
+    private final DefaultDSLContext dslContext;
+    private final DataSource dataSource;
+
+    public void createStagingTable() {
+        try {
+            dslContext.execute(CREATE_STAGING_SQL);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public Set<UUID> findExistingUserIds(Collection<UUID> userIds) {
+        try {
+            return dslContext
+                    .select(USERS.ID)
+                    .from(USERS)
+                    .where(USERS.ID.eq(DSL.any(userIds.toArray(UUID[]::new))))
+                    .fetchSet(USERS.ID);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public long copyToStaging(List<ImportedSubscription> rows) {
+        StringBuilder copyData = new StringBuilder(rows.size() * 128);
+        for (ImportedSubscription row : rows) {
+            copyData.append(row.line()).append('\t')
+                    .append(row.subscription().userId()).append('\t');
+            appendText(copyData, row.subscription().serviceName());
+            copyData.append('\t');
+            appendTimestamp(copyData, row.subscription().startTime());
+            copyData.append('\t');
+            appendTimestamp(copyData, row.subscription().endTime());
+            copyData.append('\n');
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(COPY_SQL, new StringReader(copyData.toString()));
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public long mergeStaging(Consumer<ImportReject> rejectConsumer) {
+        long rejected = 0;
+        try (Cursor<Record> rejects = dslContext.resultQuery(MERGE_STAGING_SQL).fetchSize(1000).fetchLazy()) {
+            for (Record reject : rejects) {
+                rejectConsumer.accept(new ImportReject(reject.get(0, Long.class), reject.get(1, String.class)));
+                rejected++;
+            }
+            return rejected;
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    public int recountSubscriptionAmounts() {
+        try {
+            return dslContext.execute(RECOUNT_SUBSCRIPTIONS_SQL);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    private static void appendTimestamp(StringBuilder copyData, LocalDateTime value) {
+        if (value == null) {
+            copyData.append("\\N");
+        } else {
+            copyData.append(value);
+        }
+    }
+
+    private static void appendText(StringBuilder copyData, String value) {
+        if (value == null) {
+            copyData.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> copyData.append("\\\\");
+                case '\t' -> copyData.append("\\t");
+                case '\n' -> copyData.append("\\n");
+                case '\r' -> copyData.append("\\r");
+                default -> copyData.append(c);
+            }
+        }
+    }
+}
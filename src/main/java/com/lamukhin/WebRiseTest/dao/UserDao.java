@@ -1,60 +1,93 @@
 package com.lamukhin.WebRiseTest.dao;
 
 
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRead;
+import com.lamukhin.WebRiseTest.datasource.UserWrite;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
 import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.jooq.Field;
+import org.jooq.Record;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultDSLContext;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.lamukhin.generated.tables.Users.USERS;
 
 @Repository
 @RequiredArgsConstructor
+@Timed("webrise.dao")
 public class UserDao {
 
+    static final String UNIQUE_VIOLATION = "23505";
+
+    static final String DELETE_USER_SQL = """
+            WITH deleted_subscriptions AS (
+                DELETE FROM subscriptions
+                WHERE user_id = {0}
+                RETURNING service_name
+            ), deleted_user AS (
+                DELETE FROM users
+                WHERE id = {0}
+                RETURNING id
+            )
+            SELECT (SELECT count(*) FROM deleted_user)::int                    AS deleted,
+                   array(SELECT service_name FROM deleted_subscriptions)::text[] AS services
+            """;
+
     private final DefaultDSLContext dslContext;
+    private final InvalidationPublisher invalidationPublisher;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
 
-    public void saveNewUser(FullUserInfoDto newUser) {
+    @UserWrite
+    public boolean saveNewUser(FullUserInfoDto newUser) {
         try {
-            dslContext
+            return dslContext
                     .insertInto(USERS)
                     .columns(USERS.ID, USERS.USER_NAME, USERS.EMAIL, USERS.REGISTRATION_TIME, USERS.SUBSCRIPTION_AMOUNT)
                     .values(newUser.id(), newUser.userName(), newUser.email(), newUser.registrationTime(), newUser.subscriptionAmount())
-                    .execute();
+                    .onConflict(USERS.EMAIL)
+                    .doNothing()
+                    .returningResult(USERS.ID)
+                    .fetchOne() != null;
         } catch (Throwable e) {
-            throw new DataAccessException(e.getMessage());
+            throw toDataAccessException(e);
         }
     }
 
-    public FullUserInfoDto findUserByEmail(String email) {
+    @ReplicaRead
+    public FullUserInfoDto findUserById(UUID id) {
         try {
-            return dslContext
-                    .selectFrom(USERS)
-                    .where(USERS.EMAIL.eq(email))
+            return QueryCatalog.userById(dslContext, id)
                     .fetchOneInto(FullUserInfoDto.class);
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
-    public FullUserInfoDto findUserById(UUID id) {
+    public FullUserInfoDto loadUserById(UUID id) {
         try {
-            return dslContext
-                    .selectFrom(USERS)
-                    .where(USERS.ID.eq(id))
+            return QueryCatalog.userById(dslContext, id)
                     .fetchOneInto(FullUserInfoDto.class);
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
+    @UserWrite
     public int updateUserById(UUID id, UpdateUserDataDto newData) {
         Map<Field<?>, Object> fieldsToUpdate = new HashMap<>();
         fieldsToUpdate.put(USERS.USER_NAME, newData.userName());
@@ -63,24 +96,83 @@ public class UserDao {
             fieldsToUpdate.put(USERS.EMAIL, newData.newEmail());
         }
         try {
-            return dslContext
+            int updated = dslContext
                     .update(USERS)
                     .set(fieldsToUpdate)
                     .where(USERS.ID.eq(id))
                     .execute();
+            invalidationPublisher.publishUserChanged(id);
+            return updated;
         } catch (Throwable e) {
-            throw new DataAccessException(e.getMessage());
+            throw toDataAccessException(e);
         }
     }
 
+    @UserWrite
     public int deleteUserById(UUID userUuid) {
         try {
-            return dslContext
-                    .deleteFrom(USERS)
-                    .where(USERS.ID.eq(userUuid))
-                    .execute();
+            Record result = dslContext
+                    .resultQuery(DELETE_USER_SQL, DSL.val(userUuid))
+                    .fetchOne();
+            afterUserDeleted(userUuid, result.get("services", String[].class));
+            return result.get("deleted", Integer.class);
+        } catch (Throwable e) {
+            throw toDataAccessException(e);
+        }
+    }
+
+    private void afterUserDeleted(UUID userUuid, String[] services) {
+        for (String service : services) {
+            subscriptionLeaderboard.decrement(service);
+            invalidationPublisher.publishSubscriptionsChanged(userUuid, service, -1);
+        }
+        invalidationPublisher.publishUserChanged(userUuid);
+    }
+
+    @ReplicaRead
+    public List<FullUserInfoDto> getUsersPage(LocalDateTime afterRegistrationTime, UUID afterId, int limit) {
+        try {
+            return QueryCatalog.usersPage(dslContext, afterRegistrationTime, afterId, limit)
+                    .fetchInto(FullUserInfoDto.class);
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllEmails(int fetchSize, Consumer<String> consumer) {
+        try (var cursor = dslContext
+                .select(USERS.EMAIL)
+                .from(USERS)
+                .where(USERS.EMAIL.isNotNull())
+                .fetchSize(fetchSize)
+                .fetchLazy()) {
+            for (var record : cursor) {
+                consumer.accept(record.value1());
+            }
         } catch (Throwable e) {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    @Transactional(readOnly = true)
+    public void streamAllUsers(int fetchSize, Consumer<FullUserInfoDto> consumer) {
+        try (var cursor = dslContext.selectFrom(USERS).fetchSize(fetchSize).fetchLazy()) {
+            for (var record : cursor) {
+                consumer.accept(record.into(FullUserInfoDto.class));
+            }
+        } catch (Throwable e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    private static RuntimeException toDataAccessException(Throwable e) {
+        if (e instanceof DuplicateKeyException duplicate) {
+            return duplicate;
+        }
+        if (e instanceof DataAccessException dataAccess && UNIQUE_VIOLATION.equals(dataAccess.sqlState())) {
+            return new DuplicateKeyException(e.getMessage(), e);
+        }
+        return new DataAccessException(e.getMessage());
+    }
 }
@@ -0,0 +1,42 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Objects;
+
+@Component
+@RequiredArgsConstructor
+public class BoundedDataSourceMetrics implements MeterBinder {
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dataSources.orderedStream()
+                .map(BoundedDataSourceMetrics::unwrapBounded)
+                .filter(Objects::nonNull)
+                .forEach(dataSource -> {
+                    Gauge.builder("webrise.db.permits.max", dataSource, BoundedDataSource::getMaxPermits)
+                            .register(registry);
+                    Gauge.builder("webrise.db.permits.available", dataSource, BoundedDataSource::getAvailablePermits)
+                            .register(registry);
+                    Gauge.builder("webrise.db.permits.waiting", dataSource, BoundedDataSource::getQueueLength)
+                            .register(registry);
+                });
+    }
+
+    private static BoundedDataSource unwrapBounded(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(BoundedDataSource.class) ? dataSource.unwrap(BoundedDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(value = "db.concurrency.limit-enabled", matchIfMissing = true)
+@Slf4j
+public class ConnectionLimiterPostProcessor implements BeanPostProcessor, Ordered {
+
+    static final int ORDER = 0;
+
+    private final int permits;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimiterPostProcessor(@Value("${db.concurrency.permits:0}") int permits,
+                                          @Value("${db.concurrency.acquire-timeout:PT30S}") Duration acquireTimeout) {
+        this.permits = permits;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+            return bean;
+        }
+        int limit = permits > 0 ? permits : poolSize(dataSource);
+        if (limit <= 0) {
+            return bean;
+        }
+        log.info("Database concurrency for \"{}\" is limited to {} permits", beanName, limit);
+        return new BoundedDataSource(dataSource, limit, acquireTimeout);
+    }
+
+    private int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.lamukhin.WebRiseTest.dao.DtoRecordMapperProvider;
+import io.r2dbc.pool.ConnectionPool;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultRecordMapperProvider;
+import org.springframework.beans.factory.DisposableBean;
+
+public class ReactiveDatabase implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+    private final DSLContext dsl;
+
+    public ReactiveDatabase(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        Configuration configuration = new DefaultConfiguration()
+                .set(connectionPool)
+                .set(SQLDialect.POSTGRES);
+        this.dsl = DSL.using(configuration.set(
+                new DtoRecordMapperProvider(new DefaultRecordMapperProvider(configuration))));
+    }
+
+    public DSLContext dsl() {
+        return dsl;
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,39 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("reactive")
+@Slf4j
+public class ReactiveDatabaseConfig {
+
+    @Bean
+    public ReactiveDatabase reactiveDatabase(@Value("${reactive.r2dbc.url}") String url,
+                                             @Value("${reactive.r2dbc.username}") String username,
+                                             @Value("${reactive.r2dbc.password}") String password,
+                                             @Value("${reactive.r2dbc.pool.initial-size:10}") int initialSize,
+                                             @Value("${reactive.r2dbc.pool.max-size:20}") int maxSize,
+                                             @Value("${reactive.r2dbc.pool.max-acquire-time:PT30S}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        log.info("R2DBC pool for reactive profile: initial {}, max {}", initialSize, maxSize);
+        return new ReactiveDatabase(pool);
+    }
+}
@@ -0,0 +1,157 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaRouter extends DelegatingDataSource {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(DataSource primary, List<DataSource> replicas, Selection selection) {
+        super(primary);
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReplicaRouting.isReplicaAllowed()) {
+            Connection replicaConnection = replicaConnection();
+            if (replicaConnection != null) {
+                return replicaConnection;
+            }
+        }
+        return obtainTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return obtainTargetDataSource().getConnection(username, password);
+    }
+
+    public int getHealthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    public void checkHealth(int timeoutSeconds) {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.markHealthy(connection.isValid(timeoutSeconds));
+            } catch (SQLException | RuntimeException e) {
+                if (!isPoolExhausted(e)) {
+                    replica.markUnhealthy(e);
+                }
+            }
+        }
+    }
+
+    List<DataSource> getReplicaDataSources() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    private Connection replicaConnection() {
+        Replica replica = select();
+        if (replica == null) {
+            return null;
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            if (isPoolExhausted(e)) {
+                log.debug("Replica {} pool is exhausted, reading from primary: {}", replica, e.getMessage());
+            } else {
+                replica.markUnhealthy(e);
+            }
+            return null;
+        }
+    }
+
+    // Hikari reports a connection timeout as SQLTransientConnectionException; it carries the last
+    // connection failure as the cause only when the database itself could not be reached.
+    private static boolean isPoolExhausted(Exception e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+
+    private Replica select() {
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int bestActive = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int active = replica.activeConnections();
+                if (replica.healthy && active < bestActive) {
+                    best = replica;
+                    bestActive = active;
+                }
+            }
+            return best;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+            return 0;
+        }
+
+        void markHealthy(boolean valid) {
+            if (!valid) {
+                markUnhealthy(null);
+                return;
+            }
+            if (!healthy) {
+                log.info("Replica {} is back, reads are routed to it again", this);
+            }
+            healthy = true;
+        }
+
+        void markUnhealthy(Exception cause) {
+            if (healthy) {
+                log.warn("Replica {} is unhealthy, reads fall back to primary: {}", this,
+                        cause != null ? cause.getMessage() : "connection is not valid");
+            }
+            healthy = false;
+        }
+
+        @Override
+        public String toString() {
+            return dataSource instanceof HikariDataSource hikari ? hikari.getJdbcUrl() : dataSource.toString();
+        }
+    }
+}
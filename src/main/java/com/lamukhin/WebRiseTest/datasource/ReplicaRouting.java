@@ -0,0 +1,33 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean enterReplicaRead() {
+        boolean previous = Boolean.TRUE.equals(REPLICA_READ.get());
+        REPLICA_READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void exitReplicaRead(boolean previous) {
+        if (previous) {
+            REPLICA_READ.set(Boolean.TRUE);
+        } else {
+            REPLICA_READ.remove();
+        }
+    }
+
+    static boolean isReplicaAllowed() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return Boolean.TRUE.equals(REPLICA_READ.get())
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,95 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+@Aspect
+@Component
+@ConditionalOnProperty("replicas.enabled")
+public class ReplicaRoutingAspect {
+
+    private final Cache<UUID, Boolean> recentWriters;
+    private final boolean readYourWrites;
+
+    public ReplicaRoutingAspect(@Value("${replicas.read-your-writes:PT2S}") Duration readYourWrites,
+                                @Value("${replicas.read-your-writes-max-users:100000}") long maxUsers) {
+        this.readYourWrites = !readYourWrites.isZero();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    @Around("@annotation(com.lamukhin.WebRiseTest.datasource.ReplicaRead)")
+    public Object routeRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        UUID userId = userIdOf(joinPoint.getArgs());
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return joinPoint.proceed();
+        }
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+    }
+
+    @AfterReturning("@annotation(com.lamukhin.WebRiseTest.datasource.UserWrite)")
+    public void rememberWrite(JoinPoint joinPoint) {
+        if (!readYourWrites) {
+            return;
+        }
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof Collection<?> batch) {
+                for (Object element : batch) {
+                    rememberWriter(userIdOf(element));
+                }
+            } else {
+                rememberWriter(userIdOf(arg));
+            }
+        }
+    }
+
+    private void rememberWriter(UUID userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private static UUID userIdOf(Object[] args) {
+        for (Object arg : args) {
+            UUID userId = userIdOf(arg);
+            if (userId != null) {
+                return userId;
+            }
+        }
+        return null;
+    }
+
+    private static UUID userIdOf(Object arg) {
+        if (arg instanceof UUID id) {
+            return id;
+        }
+        if (arg instanceof FullUserInfoDto user) {
+            return user.id();
+        }
+        if (arg instanceof FullSubscriptionInfoDto subscription) {
+            return subscription.userId();
+        }
+        return null;
+    }
+}
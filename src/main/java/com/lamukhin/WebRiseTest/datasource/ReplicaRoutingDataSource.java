@@ -0,0 +1,54 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final ReplicaRouter router;
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(ReplicaRouter router, Duration healthCheckInterval) {
+        super(router);
+        this.router = router;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = healthCheckInterval.toMillis();
+        int timeoutSeconds = (int) Math.max(1, healthCheckInterval.toSeconds());
+        healthChecker.scheduleWithFixedDelay(() -> router.checkHealth(timeoutSeconds),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public ReplicaRouter getRouter() {
+        return router;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        router.getReplicaDataSources().forEach(ReplicaRoutingDataSource::closePool);
+        closePool(router.getTargetDataSource());
+    }
+
+    private static void closePool(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                dataSource.unwrap(HikariDataSource.class).close();
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to close pool: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lamukhin.WebRiseTest.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+@Component
+@ConditionalOnProperty("replicas.enabled")
+@Slf4j
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final List<String> urls;
+    private final String username;
+    private final String password;
+    private final int maxPoolSize;
+    private final Duration connectionTimeout;
+    private final ReplicaRouter.Selection selection;
+    private final Duration healthCheckInterval;
+
+    public ReplicaRoutingPostProcessor(@Value("${replicas.urls}") List<String> urls,
+                                       @Value("${replicas.username:${spring.datasource.username}}") String username,
+                                       @Value("${replicas.password:${spring.datasource.password}}") String password,
+                                       @Value("${replicas.max-pool-size:10}") int maxPoolSize,
+                                       @Value("${replicas.connection-timeout:PT0.5S}") Duration connectionTimeout,
+                                       @Value("${replicas.selection:ROUND_ROBIN}") ReplicaRouter.Selection selection,
+                                       @Value("${replicas.health-check-interval:PT5S}") Duration healthCheckInterval) {
+        this.urls = urls;
+        this.username = username;
+        this.password = password;
+        this.maxPoolSize = maxPoolSize;
+        this.connectionTimeout = connectionTimeout;
+        this.selection = selection;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    @Override
+    public int getOrder() {
+        return ConnectionLimiterPostProcessor.ORDER + 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource primary) || bean instanceof ReplicaRoutingDataSource || urls.isEmpty()) {
+            return bean;
+        }
+        Properties driverProperties = driverProperties(primary);
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(beanName + "-replica-" + i);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(maxPoolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            config.setDataSourceProperties(driverProperties);
+            replicas.add(new HikariDataSource(config));
+        }
+        log.info("Read-only queries of \"{}\" are routed to {} replicas ({})", beanName, replicas.size(), selection);
+        return new ReplicaRoutingDataSource(new ReplicaRouter(primary, replicas, selection), healthCheckInterval);
+    }
+
+    private static Properties driverProperties(DataSource primary) {
+        try {
+            if (primary.isWrapperFor(HikariDataSource.class)) {
+                return primary.unwrap(HikariDataSource.class).getDataSourceProperties();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read driver properties of the primary pool: {}", e.getMessage());
+        }
+        return new Properties();
+    }
+}
@@ -0,0 +1,14 @@
+package com.lamukhin.WebRiseTest.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ArchivedSubscriptionDto(
+        Integer id,
+        UUID userId,
+        String serviceName,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        LocalDateTime archivedTime
+) {
+}
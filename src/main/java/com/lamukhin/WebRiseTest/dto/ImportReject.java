@@ -0,0 +1,7 @@
+package com.lamukhin.WebRiseTest.dto;
+
+public record ImportReject(
+        long line,
+        String reason
+) {
+}
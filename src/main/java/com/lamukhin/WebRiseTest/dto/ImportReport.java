@@ -0,0 +1,10 @@
+package com.lamukhin.WebRiseTest.dto;
+
+import java.util.List;
+
+public record ImportReport(
+        long accepted,
+        long rejected,
+        List<ImportReject> rejects
+) {
+}
@@ -0,0 +1,7 @@
+package com.lamukhin.WebRiseTest.dto;
+
+public record ImportedSubscription(
+        long line,
+        FullSubscriptionInfoDto subscription
+) {
+}
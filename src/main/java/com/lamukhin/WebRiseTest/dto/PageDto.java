@@ -0,0 +1,19 @@
+package com.lamukhin.WebRiseTest.dto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+public record PageDto<T>(
+        Collection<T> items,
+        String nextCursor
+) {
+
+    public static <T> PageDto<T> fromLookahead(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new PageDto<>(rows, null);
+        }
+        List<T> page = rows.subList(0, pageSize);
+        return new PageDto<>(page, cursorOf.apply(page.get(pageSize - 1)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.lamukhin.WebRiseTest.dto;
+
+public record SqlStatementStats(
+        String sql,
+        long executions,
+        long errors,
+        long rows,
+        double totalMs,
+        double meanMs,
+        double maxMs
+) {
+}
@@ -0,0 +1,9 @@
+package com.lamukhin.WebRiseTest.dto;
+
+import java.time.LocalDateTime;
+
+public record SubscriptionUpsertResult(
+        SubscriptionUpsertStatus status,
+        LocalDateTime activeUntil
+) {
+}
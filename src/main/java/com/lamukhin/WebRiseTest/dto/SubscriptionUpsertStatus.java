@@ -0,0 +1,8 @@
+package com.lamukhin.WebRiseTest.dto;
+
+public enum SubscriptionUpsertStatus {
+    USER_NOT_FOUND,
+    STILL_ACTIVE,
+    CREATED,
+    RENEWED
+}
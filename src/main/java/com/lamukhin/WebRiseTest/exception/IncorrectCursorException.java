@@ -0,0 +1,20 @@
+package com.lamukhin.WebRiseTest.exception;
+
+
+import lombok.Getter;
+
+@Getter
+public class IncorrectCursorException extends RuntimeException {
+
+    private final String message;
+
+    public IncorrectCursorException(String message) {
+        super(message, null, false, false);
+        this.message = message;
+    }
+
+    public IncorrectCursorException() {
+        super("", null, false, false);
+        this.message = "";
+    }
+}
@@ -9,10 +9,12 @@ public class IncorrectIdException extends RuntimeException {
     private final String message;
 
     public IncorrectIdException(String message) {
+        super(message, null, false, false);
         this.message = message;
     }
 
     public IncorrectIdException() {
+        super("", null, false, false);
         this.message = "";
     }
 }
@@ -9,10 +9,12 @@ public class SubscriptionException extends RuntimeException {
     private final String message;
 
     public SubscriptionException(String message) {
+        super(message, null, false, false);
         this.message = message;
     }
 
     public SubscriptionException() {
+        super("", null, false, false);
         this.message = "";
     }
 }
@@ -9,10 +9,12 @@ public class UserNotFoundException extends RuntimeException {
     private final String message;
 
     public UserNotFoundException(String message) {
+        super(message, null, false, false);
         this.message = message;
     }
 
     public UserNotFoundException() {
+        super("", null, false, false);
         this.message = "";
     }
 }
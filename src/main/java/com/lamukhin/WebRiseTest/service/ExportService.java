@@ -0,0 +1,94 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class ExportService {
+
+    private final UserDao userDao;
+    private final SubscriptionDao subscriptionDao;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter userWriter;
+    private final ObjectWriter subscriptionWriter;
+    private final int fetchSize;
+
+    public ExportService(UserDao userDao,
+                         SubscriptionDao subscriptionDao,
+                         ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.userDao = userDao;
+        this.subscriptionDao = subscriptionDao;
+        this.objectMapper = objectMapper;
+        this.userWriter = objectMapper.writerFor(FullUserInfoDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.subscriptionWriter = objectMapper.writerFor(FullSubscriptionInfoDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportUsers(OutputStream out) {
+        try {
+            JsonGenerator generator = createGenerator(out);
+            long[] written = {0};
+            userDao.streamAllUsers(fetchSize, writeLine(generator, userWriter, written));
+            generator.close();
+            return written[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataAccessException ex) {
+            log.error("Failed to export users: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public long exportSubscriptions(OutputStream out) {
+        try {
+            JsonGenerator generator = createGenerator(out);
+            long[] written = {0};
+            subscriptionDao.streamAllSubscriptions(fetchSize, writeLine(generator, subscriptionWriter, written));
+            generator.close();
+            return written[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataAccessException ex) {
+            log.error("Failed to export subscriptions: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private <T> Consumer<T> writeLine(JsonGenerator generator, ObjectWriter writer, long[] written) {
+        return value -> {
+            try {
+                writer.writeValue(generator, value);
+                generator.writeRaw('\n');
+                written[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
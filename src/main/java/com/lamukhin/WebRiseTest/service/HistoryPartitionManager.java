@@ -0,0 +1,111 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.dao.HistoryPartitionDao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(value = "subscriptions.history.partitions.enabled", matchIfMissing = true)
+@Slf4j
+public class HistoryPartitionManager {
+
+    private final HistoryPartitionDao historyPartitionDao;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    public HistoryPartitionManager(HistoryPartitionDao historyPartitionDao,
+                                   @Value("${subscriptions.history.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${subscriptions.history.partitions.retention-months:24}") int retentionMonths,
+                                   @Value("${subscriptions.history.partitions.drop-detached:true}") boolean dropDetached,
+                                   @Value("${subscriptions.history.partitions.check-interval:PT6H}") Duration checkInterval) {
+        this.historyPartitionDao = historyPartitionDao;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+        this.checkInterval = checkInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-partition-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintainSafely, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void maintain(YearMonth currentMonth) {
+        finishPendingDetaches();
+        Set<String> existing = new HashSet<>(historyPartitionDao.listPartitions());
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            if (!existing.contains(HistoryPartitionDao.partitionName(month))) {
+                historyPartitionDao.createPartition(month);
+                log.info("Created history partition {}", HistoryPartitionDao.partitionName(month));
+            }
+        }
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        for (String partition : existing) {
+            YearMonth month = HistoryPartitionDao.partitionMonth(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                historyPartitionDao.detachPartition(partition);
+                dropIfConfigured(partition);
+            }
+        }
+    }
+
+    // DETACH ... CONCURRENTLY interrupted midway leaves the partition attached in "detach pending" state,
+    // where it can only be finalized; detaching it again fails.
+    private void finishPendingDetaches() {
+        for (String partition : historyPartitionDao.listPendingDetach()) {
+            if (HistoryPartitionDao.partitionMonth(partition) == null) {
+                continue;
+            }
+            historyPartitionDao.finalizeDetach(partition);
+            dropIfConfigured(partition);
+        }
+    }
+
+    private void dropIfConfigured(String partition) {
+        if (dropDetached) {
+            historyPartitionDao.dropTable(partition);
+        }
+        log.info("{} history partition {}", dropDetached ? "Dropped" : "Detached", partition);
+    }
+
+    private void maintainSafely() {
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException ex) {
+            log.error("Failed to maintain history partitions: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.dao.ReactiveSubscriptionDao;
+import com.lamukhin.WebRiseTest.dto.EntrySubscriptionDto;
+import com.lamukhin.WebRiseTest.dto.ArchivedSubscriptionDto;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.exception.SubscriptionException;
+import com.lamukhin.WebRiseTest.exception.UserNotFoundException;
+import com.lamukhin.WebRiseTest.util.PageCursor;
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveSubscriptionService {
+
+    private final ReactiveSubscriptionDao reactiveSubscriptionDao;
+    private final ReactiveUserService reactiveUserService;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+
+    public Mono<Integer> addSubscriptionByUserId(String userId, EntrySubscriptionDto subscription) {
+        return Mono.defer(() -> {
+            UUID userUuid = ServiceUtil.convertStringToUuid(userId);
+            var newFullInfo = new FullSubscriptionInfoDto(
+                    null,
+                    userUuid,
+                    subscription.serviceName(),
+                    LocalDateTime.now(),
+                    LocalDateTime.now().plusDays(subscription.subscriptionDurationDays())
+            );
+            return reactiveSubscriptionDao.upsertSubscription(newFullInfo)
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to upsert sub info: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    })
+                    .flatMap(result -> switch (result.status()) {
+                        case USER_NOT_FOUND -> Mono.<Integer>error(new UserNotFoundException());
+                        case STILL_ACTIVE -> Mono.<Integer>error(new SubscriptionException(
+                                "Subscription is not ended yet! It ends at " + result.activeUntil()));
+                        case CREATED, RENEWED -> Mono.just(1);
+                    });
+        });
+    }
+
+    public Flux<FullSubscriptionInfoDto> getAllSubscriptionsByUserId(String id) {
+        return Flux.defer(() -> reactiveSubscriptionDao.getAllSubscriptionsByUserId(ServiceUtil.convertStringToUuid(id)))
+                .onErrorMap(DataAccessException.class, ex -> {
+                    log.error("Failed to get all subs: {}", ex.getMessage());
+                    return new RuntimeException(ex);
+                });
+    }
+
+    public Mono<PageDto<FullSubscriptionInfoDto>> getSubscriptionsPageByUserId(String id, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            UUID userUuid = ServiceUtil.convertStringToUuid(id);
+            Integer afterId = PageCursor.decodeSubscriptionCursor(cursor);
+            int pageSize = PageCursor.boundedPageSize(limit);
+            return reactiveSubscriptionDao.getSubscriptionsPageByUserId(userUuid, afterId, pageSize + 1)
+                    .collectList()
+                    .map(rows -> PageDto.fromLookahead(rows, pageSize,
+                            last -> PageCursor.encodeSubscriptionCursor(last.id())))
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to get subs page: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    });
+        });
+    }
+
+    public Mono<PageDto<ArchivedSubscriptionDto>> getSubscriptionHistoryPageByUserId(String id, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            UUID userUuid = ServiceUtil.convertStringToUuid(id);
+            Integer afterId = PageCursor.decodeSubscriptionCursor(cursor);
+            int pageSize = PageCursor.boundedPageSize(limit);
+            return reactiveSubscriptionDao.getSubscriptionHistoryPageByUserId(userUuid, afterId, pageSize + 1)
+                    .collectList()
+                    .map(rows -> PageDto.fromLookahead(rows, pageSize,
+                            last -> PageCursor.encodeSubscriptionCursor(last.id())))
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to get subs history page: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    });
+        });
+    }
+
+    public Mono<Integer> deleteSubscriptionByIdAndUserId(String id, int subId) {
+        return reactiveUserService.getUserById(id)
+                .switchIfEmpty(Mono.error(UserNotFoundException::new))
+                .flatMap(foundUser -> reactiveSubscriptionDao.deleteSubscriptionByIdAndUser(foundUser, subId)
+                        .onErrorMap(DataAccessException.class, ex -> {
+                            log.error("Failed to delete sub: {}", ex.getMessage());
+                            return new RuntimeException(ex);
+                        }));
+    }
+
+    public Collection<TopSubscription> getTopSubscriptions(int limit) {
+        return subscriptionLeaderboard.getTop(limit);
+    }
+
+    public int getMaxTopLimit() {
+        return subscriptionLeaderboard.getMaxSize();
+    }
+
+    public Flux<FullSubscriptionInfoDto> streamAllSubscriptions() {
+        return reactiveSubscriptionDao.streamAllSubscriptions();
+    }
+}
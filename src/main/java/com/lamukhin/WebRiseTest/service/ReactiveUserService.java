@@ -0,0 +1,124 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.cache.EmailBloomFilter;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.ReactiveUserDao;
+import com.lamukhin.WebRiseTest.dto.EntryUserDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.util.IdGenerator;
+import com.lamukhin.WebRiseTest.util.PageCursor;
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserService {
+
+    private final ReactiveUserDao reactiveUserDao;
+    private final UserCache userCache;
+    private final IdGenerator idGenerator;
+    private final EmailBloomFilter emailBloomFilter;
+
+    public Mono<UUID> saveNewUser(EntryUserDto newData) {
+        return Mono.defer(() -> {
+                    UUID newUserUuid = idGenerator.nextId();
+                    var newUser = new FullUserInfoDto(
+                            newUserUuid,
+                            newData.userName(),
+                            newData.email(),
+                            LocalDateTime.now(),
+                            0
+                    );
+                    boolean maybeTaken = emailBloomFilter.mightContain(newData.email());
+                    return reactiveUserDao.saveNewUser(newUser)
+                            .flatMap(inserted -> inserted
+                                    ? Mono.fromSupplier(() -> {
+                                        emailBloomFilter.addWritten(newData.email(), maybeTaken);
+                                        return newUserUuid;
+                                    })
+                                    : Mono.error(new DuplicateKeyException(
+                                            "User with email " + newData.email() + " already exists.")));
+                })
+                .onErrorMap(DataAccessException.class, ex -> {
+                    log.error("Failed to save a new user: {}", ex.getMessage());
+                    return new RuntimeException(ex);
+                });
+    }
+
+    public Mono<FullUserInfoDto> getUserById(String id) {
+        return Mono.defer(() -> {
+            UUID userUuid = ServiceUtil.convertStringToUuid(id);
+            return Mono.fromFuture(() -> userCache.getAsync(userUuid,
+                            key -> reactiveUserDao.findUserById(key).toFuture()), true)
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to load user info: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    });
+        });
+    }
+
+    public Mono<PageDto<FullUserInfoDto>> getUsersPage(String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            PageCursor.UserPosition after = PageCursor.decodeUserCursor(cursor);
+            int pageSize = PageCursor.boundedPageSize(limit);
+            return (after == null
+                    ? reactiveUserDao.getUsersPage(null, null, pageSize + 1)
+                    : reactiveUserDao.getUsersPage(after.registrationTime(), after.id(), pageSize + 1))
+                    .collectList()
+                    .map(rows -> PageDto.fromLookahead(rows, pageSize,
+                            last -> PageCursor.encodeUserCursor(last.registrationTime(), last.id())))
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to load users page: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    });
+        });
+    }
+
+    public Mono<Integer> updateUserById(String id, UpdateUserDataDto newData) {
+        return Mono.defer(() -> {
+                    UUID userUuid = ServiceUtil.convertStringToUuid(id);
+                    boolean maybeTaken = newData.newEmail() != null && emailBloomFilter.mightContain(newData.newEmail());
+                    return reactiveUserDao.updateUserById(userUuid, newData)
+                            .doOnNext(updated -> {
+                                userCache.invalidate(userUuid);
+                                if (updated > 0 && newData.newEmail() != null) {
+                                    emailBloomFilter.addWritten(newData.newEmail(), maybeTaken);
+                                }
+                            });
+                })
+                .onErrorMap(DataAccessException.class, ex -> {
+                    log.error("Failed to update user info: {}", ex.getMessage());
+                    return new RuntimeException(ex);
+                });
+    }
+
+    public Mono<Integer> deleteUserById(String id) {
+        return Mono.defer(() -> {
+            UUID userUuid = ServiceUtil.convertStringToUuid(id);
+            return reactiveUserDao.deleteUserById(userUuid)
+                    .doOnNext(deleted -> userCache.invalidate(userUuid))
+                    .onErrorMap(DataAccessException.class, ex -> {
+                        log.error("Failed to update user info: {}", ex.getMessage());
+                        return new RuntimeException(ex);
+                    });
+        });
+    }
+
+    public Flux<FullUserInfoDto> streamAllUsers() {
+        return reactiveUserDao.streamAllUsers();
+    }
+}
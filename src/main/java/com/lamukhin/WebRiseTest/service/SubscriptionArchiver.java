@@ -0,0 +1,150 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.SubscriptionArchiveDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty(value = "subscriptions.archive.enabled", matchIfMissing = true)
+@Slf4j
+public class SubscriptionArchiver implements MeterBinder {
+
+    private final SubscriptionArchiveDao subscriptionArchiveDao;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+    private final UserCache userCache;
+    private final InvalidationPublisher invalidationPublisher;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration interval;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastRunEpochSeconds = new AtomicLong();
+
+    private Timer batchTimer;
+    private ScheduledExecutorService scheduler;
+
+    public SubscriptionArchiver(SubscriptionArchiveDao subscriptionArchiveDao,
+                                SubscriptionLeaderboard subscriptionLeaderboard,
+                                UserCache userCache,
+                                InvalidationPublisher invalidationPublisher,
+                                @Value("${subscriptions.archive.retention:P30D}") Duration retention,
+                                @Value("${subscriptions.archive.batch-size:500}") int batchSize,
+                                @Value("${subscriptions.archive.batch-pause:PT0.2S}") Duration batchPause,
+                                @Value("${subscriptions.archive.interval:PT10M}") Duration interval) {
+        this.subscriptionArchiveDao = subscriptionArchiveDao;
+        this.subscriptionLeaderboard = subscriptionLeaderboard;
+        this.userCache = userCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "subscription-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Subscription archiver: retention {}, batch {}, every {}", retention, batchSize, interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("webrise.archive.subscriptions", archived, LongAdder::sum).register(registry);
+        FunctionCounter.builder("webrise.archive.batches", batches, LongAdder::sum).register(registry);
+        FunctionCounter.builder("webrise.archive.failures", failures, LongAdder::sum).register(registry);
+        Gauge.builder("webrise.archive.last_run", lastRunEpochSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(registry);
+        batchTimer = Timer.builder("webrise.archive.batch").register(registry);
+    }
+
+    public long archiveExpired() throws InterruptedException {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(retention);
+        FullSubscriptionInfoDto last = null;
+        long total = 0;
+        List<FullSubscriptionInfoDto> moved;
+        do {
+            long startNanos = System.nanoTime();
+            moved = subscriptionArchiveDao.archiveExpiredBatch(expiredBefore, last, batchSize);
+            if (batchTimer != null) {
+                batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+            batches.increment();
+            if (moved.isEmpty()) {
+                break;
+            }
+            afterArchived(moved);
+            total += moved.size();
+            last = moved.get(moved.size() - 1);
+            if (moved.size() == batchSize && !batchPause.isZero()) {
+                Thread.sleep(batchPause.toMillis());
+            }
+        } while (moved.size() == batchSize);
+        lastRunEpochSeconds.set(System.currentTimeMillis() / 1000);
+        return total;
+    }
+
+    private void runSafely() {
+        try {
+            long total = archiveExpired();
+            if (total > 0) {
+                log.info("Archived {} expired subscriptions", total);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (DataAccessException ex) {
+            failures.increment();
+            log.error("Failed to archive expired subscriptions: {}", ex.getMessage());
+        }
+    }
+
+    private void afterArchived(List<FullSubscriptionInfoDto> moved) {
+        archived.add(moved.size());
+        Map<String, Integer> removedByService = new HashMap<>();
+        for (FullSubscriptionInfoDto subscription : moved) {
+            removedByService.merge(subscription.serviceName(), 1, Integer::sum);
+            userCache.invalidate(subscription.userId());
+            invalidationPublisher.publishSubscriptionsChanged(subscription.userId(), subscription.serviceName(), -1);
+        }
+        removedByService.forEach((serviceName, removed) -> subscriptionLeaderboard.change(serviceName, -removed));
+    }
+}
@@ -0,0 +1,222 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty("subscriptions.group-commit.enabled")
+@Slf4j
+public class SubscriptionGroupCommitter implements MeterBinder {
+
+    private final SubscriptionDao subscriptionDao;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingUpsert> queue;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final Duration resultTimeout;
+
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    private DistributionSummary batchSizes;
+    private volatile boolean running;
+    private Thread worker;
+
+    public SubscriptionGroupCommitter(SubscriptionDao subscriptionDao,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${subscriptions.group-commit.queue-size:10000}") int queueSize,
+                                      @Value("${subscriptions.group-commit.max-batch:256}") int maxBatch,
+                                      @Value("${subscriptions.group-commit.window:PT0.002S}") Duration window,
+                                      @Value("${subscriptions.group-commit.result-timeout:PT5S}") Duration resultTimeout) {
+        this.subscriptionDao = subscriptionDao;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatch = maxBatch;
+        this.windowNanos = window.toNanos();
+        this.resultTimeout = resultTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "subscription-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Subscription group commit: up to {} upserts per {} us", maxBatch, windowNanos / 1000);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(resultTimeout.toMillis());
+        }
+        PendingUpsert leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new RejectedExecutionException("Group commit is stopped"));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("webrise.group_commit.batch_size").register(registry);
+        FunctionCounter.builder("webrise.group_commit.batches", committedBatches, LongAdder::sum).register(registry);
+        FunctionCounter.builder("webrise.group_commit.failed_batches", failedBatches, LongAdder::sum).register(registry);
+        FunctionCounter.builder("webrise.group_commit.bypassed", bypassed, LongAdder::sum).register(registry);
+    }
+
+    public SubscriptionUpsertResult upsert(FullSubscriptionInfoDto subscription) {
+        PendingUpsert pending = new PendingUpsert(subscription, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            bypassed.increment();
+            return subscriptionDao.upsertSubscription(subscription);
+        }
+        // stop() may have drained the queue between the running check and the offer
+        if (!running && queue.remove(pending)) {
+            bypassed.increment();
+            return subscriptionDao.upsertSubscription(subscription);
+        }
+        try {
+            return pending.result().get(resultTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RejectedExecutionException) {
+                bypassed.increment();
+                return subscriptionDao.upsertSubscription(subscription);
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DataAccessException(ex.getMessage(), ex.getCause());
+        } catch (TimeoutException ex) {
+            if (queue.remove(pending)) {
+                bypassed.increment();
+                return subscriptionDao.upsertSubscription(subscription);
+            }
+            throw new DataAccessException("Group commit did not answer within " + resultTimeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for group commit", ex);
+        }
+    }
+
+    private void runLoop() {
+        List<PendingUpsert> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        PendingUpsert leftover;
+        while ((leftover = queue.poll()) != null) {
+            commit(List.of(leftover));
+        }
+    }
+
+    private void collect(List<PendingUpsert> batch) throws InterruptedException {
+        PendingUpsert first = queue.take();
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || remaining <= 0) {
+                return;
+            }
+            PendingUpsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingUpsert> batch) {
+        List<List<PendingUpsert>> rounds = splitByKey(batch);
+        try {
+            List<List<SubscriptionUpsertResult>> results = transactionTemplate.execute(status -> {
+                List<List<SubscriptionUpsertResult>> roundResults = new ArrayList<>(rounds.size());
+                for (List<PendingUpsert> round : rounds) {
+                    roundResults.add(subscriptionDao.upsertSubscriptions(round.stream().map(PendingUpsert::subscription).toList()));
+                }
+                return roundResults;
+            });
+            for (int r = 0; r < rounds.size(); r++) {
+                List<PendingUpsert> round = rounds.get(r);
+                for (int i = 0; i < round.size(); i++) {
+                    round.get(i).result().complete(results.get(r).get(i));
+                }
+            }
+            committedBatches.increment();
+            if (batchSizes != null) {
+                batchSizes.record(batch.size());
+            }
+        } catch (RuntimeException ex) {
+            failedBatches.increment();
+            log.warn("Group commit of {} upserts failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            for (PendingUpsert pending : batch) {
+                try {
+                    pending.result().complete(subscriptionDao.upsertSubscription(pending.subscription()));
+                } catch (DataAccessException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private static List<List<PendingUpsert>> splitByKey(List<PendingUpsert> batch) {
+        List<List<PendingUpsert>> rounds = new ArrayList<>();
+        List<Set<List<Object>>> keys = new ArrayList<>();
+        for (PendingUpsert pending : batch) {
+            List<Object> key = Arrays.asList(pending.subscription().userId(), pending.subscription().serviceName());
+            int round = 0;
+            while (round < rounds.size() && keys.get(round).contains(key)) {
+                round++;
+            }
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+                keys.add(new HashSet<>());
+            }
+            rounds.get(round).add(pending);
+            keys.get(round).add(key);
+        }
+        return rounds;
+    }
+
+    private record PendingUpsert(FullSubscriptionInfoDto subscription,
+                                 CompletableFuture<SubscriptionUpsertResult> result) {
+    }
+}
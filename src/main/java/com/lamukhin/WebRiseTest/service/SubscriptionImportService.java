@@ -0,0 +1,176 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.SubscriptionImportDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.ImportReject;
+import com.lamukhin.WebRiseTest.dto.ImportReport;
+import com.lamukhin.WebRiseTest.dto.ImportedSubscription;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+@Service
+@Slf4j
+public class SubscriptionImportService {
+
+    private final SubscriptionImportDao subscriptionImportDao;
+    private final SubscriptionService subscriptionService;
+    private final UserCache userCache;
+    private final InvalidationPublisher invalidationPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader lineReader;
+    private final int batchSize;
+    private final int maxReportedRejects;
+
+    public SubscriptionImportService(SubscriptionImportDao subscriptionImportDao,
+                                     SubscriptionService subscriptionService,
+                                     UserCache userCache,
+                                     InvalidationPublisher invalidationPublisher,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectMapper objectMapper,
+                                     @Value("${subscriptions.import.batch-size:5000}") int batchSize,
+                                     @Value("${subscriptions.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.subscriptionImportDao = subscriptionImportDao;
+        this.subscriptionService = subscriptionService;
+        this.userCache = userCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.lineReader = objectMapper.readerFor(FullSubscriptionInfoDto.class);
+        this.batchSize = batchSize;
+        this.maxReportedRejects = maxReportedRejects;
+    }
+
+    public ImportReport importSubscriptions(InputStream ndjson) {
+        ImportReport report;
+        try {
+            report = transactionTemplate.execute(status -> importInTransaction(ndjson));
+        } catch (DataAccessException ex) {
+            log.error("Failed to import subscriptions: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+        userCache.invalidateAll();
+        subscriptionService.rebuildLeaderboard();
+        invalidationPublisher.publishFlushAll();
+        log.info("Imported {} subscriptions, rejected {}", report.accepted(), report.rejected());
+        return report;
+    }
+
+    private ImportReport importInTransaction(InputStream ndjson) {
+        RejectCollector rejects = new RejectCollector(maxReportedRejects);
+        List<ImportedSubscription> batch = new ArrayList<>(batchSize);
+        long staged = 0;
+
+        subscriptionImportDao.createStagingTable();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportedSubscription parsed = parseLine(lineNumber, line, rejects);
+                if (parsed == null) {
+                    continue;
+                }
+                batch.add(parsed);
+                if (batch.size() >= batchSize) {
+                    staged += stageBatch(batch, rejects);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            staged += stageBatch(batch, rejects);
+        }
+
+        long rejectedOnMerge = subscriptionImportDao.mergeStaging(rejects::add);
+        subscriptionImportDao.recountSubscriptionAmounts();
+        return new ImportReport(staged - rejectedOnMerge, rejects.total, rejects.reported);
+    }
+
+    private ImportedSubscription parseLine(long lineNumber, String line, RejectCollector rejects) {
+        FullSubscriptionInfoDto subscription;
+        try {
+            subscription = lineReader.readValue(line);
+        } catch (IOException e) {
+            rejects.add(new ImportReject(lineNumber, "Malformed JSON"));
+            return null;
+        }
+        String problem = validate(subscription);
+        if (problem != null) {
+            rejects.add(new ImportReject(lineNumber, problem));
+            return null;
+        }
+        return new ImportedSubscription(lineNumber, subscription);
+    }
+
+    private String validate(FullSubscriptionInfoDto subscription) {
+        if (subscription.userId() == null) {
+            return "User ID is missing";
+        }
+        if (subscription.serviceName() == null || subscription.serviceName().isBlank()) {
+            return "Service name is missing";
+        }
+        if (subscription.startTime() == null || subscription.endTime() == null) {
+            return "Start and end time are required";
+        }
+        if (subscription.endTime().isBefore(subscription.startTime())) {
+            return "Subscription ends before it starts";
+        }
+        return null;
+    }
+
+    private long stageBatch(List<ImportedSubscription> batch, RejectCollector rejects) {
+        Set<UUID> userIds = new HashSet<>();
+        batch.forEach(row -> userIds.add(row.subscription().userId()));
+        Set<UUID> existingUserIds = subscriptionImportDao.findExistingUserIds(userIds);
+
+        List<ImportedSubscription> accepted = new ArrayList<>(batch.size());
+        for (ImportedSubscription row : batch) {
+            if (existingUserIds.contains(row.subscription().userId())) {
+                accepted.add(row);
+            } else {
+                rejects.add(new ImportReject(row.line(), "User is not found"));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+        return subscriptionImportDao.copyToStaging(accepted);
+    }
+
+    private static final class RejectCollector {
+
+        private final int limit;
+        private final List<ImportReject> reported = new ArrayList<>();
+        private long total;
+
+        private RejectCollector(int limit) {
+            this.limit = limit;
+        }
+
+        private void add(ImportReject reject) {
+            total++;
+            if (reported.size() < limit) {
+                reported.add(reject);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.lamukhin.WebRiseTest.service;
+
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class SubscriptionLeaderboard {
+
+    private static final Comparator<TopSubscription> BY_SUBSCRIBERS_DESC = Comparator
+            .comparingInt(TopSubscription::amountOfSubscribers).reversed()
+            .thenComparing(TopSubscription::serviceName);
+
+    private final ConcurrentHashMap<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final Object topLock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final int maxSize;
+    private final long refreshIntervalNanos;
+
+    // Writers only bump their counter and raise the flag. At most one reader per refresh interval
+    // recomputes the top, the others keep serving the last snapshot without waiting.
+    private volatile boolean dirty;
+    private volatile long refreshedAt = System.nanoTime();
+    private volatile List<TopSubscription> top = List.of();
+
+    public SubscriptionLeaderboard(@Value("${subscriptions.leaderboard.max-size:100}") int maxSize,
+                                   @Value("${subscriptions.leaderboard.refresh-interval:PT1S}") Duration refreshInterval) {
+        this.maxSize = maxSize;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public List<TopSubscription> getTop(int limit) {
+        if (dirty && System.nanoTime() - refreshedAt >= refreshIntervalNanos && refreshing.compareAndSet(false, true)) {
+            try {
+                synchronized (topLock) {
+                    dirty = false;
+                    top = computeFullTop();
+                    refreshedAt = System.nanoTime();
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        List<TopSubscription> snapshot = top;
+        return snapshot.subList(0, Math.min(Math.max(limit, 0), snapshot.size()));
+    }
+
+    public void increment(String serviceName) {
+        change(serviceName, 1);
+    }
+
+    public void decrement(String serviceName) {
+        change(serviceName, -1);
+    }
+
+    public void change(String serviceName, int delta) {
+        if (serviceName == null || delta == 0) {
+            return;
+        }
+        AtomicInteger counter = delta > 0
+                ? counters.computeIfAbsent(serviceName, name -> new AtomicInteger())
+                : counters.get(serviceName);
+        if (counter == null) {
+            return;
+        }
+        counter.updateAndGet(value -> Math.max(value + delta, 0));
+        if (!dirty) {
+            dirty = true;
+        }
+    }
+
+    public void rebuild(Map<String, Integer> subscribersByService) {
+        synchronized (topLock) {
+            counters.clear();
+            subscribersByService.forEach((name, amount) -> counters.put(name, new AtomicInteger(amount)));
+            dirty = false;
+            top = computeFullTop();
+            refreshedAt = System.nanoTime();
+        }
+        log.info("Subscription leaderboard rebuilt from {} services", subscribersByService.size());
+    }
+
+    private List<TopSubscription> computeFullTop() {
+        PriorityQueue<TopSubscription> best = new PriorityQueue<>(maxSize + 1, BY_SUBSCRIBERS_DESC.reversed());
+        counters.forEach((name, counter) -> {
+            int amount = counter.get();
+            if (amount > 0) {
+                best.add(new TopSubscription(name, amount));
+                if (best.size() > maxSize) {
+                    best.poll();
+                }
+            }
+        });
+        List<TopSubscription> result = new ArrayList<>(best);
+        result.sort(BY_SUBSCRIBERS_DESC);
+        return List.copyOf(result);
+    }
+}
@@ -1,20 +1,27 @@
 package com.lamukhin.WebRiseTest.service;
 
 import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dto.ArchivedSubscriptionDto;
 import com.lamukhin.WebRiseTest.dto.EntrySubscriptionDto;
 import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
 import com.lamukhin.WebRiseTest.dto.TopSubscription;
 import com.lamukhin.WebRiseTest.exception.SubscriptionException;
 import com.lamukhin.WebRiseTest.exception.UserNotFoundException;
+import com.lamukhin.WebRiseTest.util.PageCursor;
 import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.exception.DataAccessException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -24,13 +31,21 @@ public class SubscriptionService {
 
     private final SubscriptionDao subscriptionDao;
     private final UserService userService;
+    private final SubscriptionLeaderboard subscriptionLeaderboard;
+    private final ObjectProvider<SubscriptionGroupCommitter> subscriptionGroupCommitter;
+
+    @PostConstruct
+    public void rebuildLeaderboard() {
+        try {
+            subscriptionLeaderboard.rebuild(subscriptionDao.getSubscribersByService());
+        } catch (DataAccessException ex) {
+            log.error("Failed to rebuild subscription leaderboard: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
 
     public int addSubscriptionByUserId(String userId, EntrySubscriptionDto subscription) {
         UUID userUuid = ServiceUtil.convertStringToUuid(userId);
-        FullUserInfoDto foundUser = userService.getUserById(userId);
-        if (foundUser == null) {
-            throw new UserNotFoundException();
-        }
         var newFullInfo = new FullSubscriptionInfoDto(
                 null,
                 userUuid,
@@ -39,26 +54,21 @@ public class SubscriptionService {
                 LocalDateTime.now().plusDays(subscription.subscriptionDurationDays())
         );
 
-        FullSubscriptionInfoDto sub = subscriptionDao.getSubscriptionByUserIdAndName(userUuid, subscription.serviceName());
-        if (sub != null) {
-            if (sub.endTime().isAfter(LocalDateTime.now())) {
-                throw new SubscriptionException("Subscription is not ended yet! It ends at " + sub.endTime());
-            } else {
-                try {
-                    return subscriptionDao.updateSubscriptionByNameAndUserId(userUuid, newFullInfo);
-                } catch (DataAccessException ex) {
-                    log.error("Failed to update sub info: {}", ex.getMessage());
-                    throw new RuntimeException(ex);
-                }
-            }
-        }
-
+        SubscriptionUpsertResult result;
         try {
-            return subscriptionDao.addNewSubscriptionByUser(foundUser, newFullInfo);
+            SubscriptionGroupCommitter groupCommitter = subscriptionGroupCommitter.getIfAvailable();
+            result = groupCommitter != null
+                    ? groupCommitter.upsert(newFullInfo)
+                    : subscriptionDao.upsertSubscription(newFullInfo);
         } catch (DataAccessException ex) {
-            log.error("Failed to insert sub info: {}", ex.getMessage());
+            log.error("Failed to upsert sub info: {}", ex.getMessage());
             throw new RuntimeException(ex);
         }
+        return switch (result.status()) {
+            case USER_NOT_FOUND -> throw new UserNotFoundException();
+            case STILL_ACTIVE -> throw new SubscriptionException("Subscription is not ended yet! It ends at " + result.activeUntil());
+            case CREATED, RENEWED -> 1;
+        };
     }
 
     public Collection<FullSubscriptionInfoDto> getAllSubscriptionsByUserId(String id) {
@@ -71,6 +81,32 @@ public class SubscriptionService {
         }
     }
 
+    public PageDto<FullSubscriptionInfoDto> getSubscriptionsPageByUserId(String id, String cursor, Integer limit) {
+        UUID userUuid = ServiceUtil.convertStringToUuid(id);
+        Integer afterId = PageCursor.decodeSubscriptionCursor(cursor);
+        int pageSize = PageCursor.boundedPageSize(limit);
+        try {
+            List<FullSubscriptionInfoDto> rows = subscriptionDao.getSubscriptionsPageByUserId(userUuid, afterId, pageSize + 1);
+            return PageDto.fromLookahead(rows, pageSize, last -> PageCursor.encodeSubscriptionCursor(last.id()));
+        } catch (DataAccessException ex) {
+            log.error("Failed to get subs page: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public PageDto<ArchivedSubscriptionDto> getSubscriptionHistoryPageByUserId(String id, String cursor, Integer limit) {
+        UUID userUuid = ServiceUtil.convertStringToUuid(id);
+        Integer afterId = PageCursor.decodeSubscriptionCursor(cursor);
+        int pageSize = PageCursor.boundedPageSize(limit);
+        try {
+            List<ArchivedSubscriptionDto> rows = subscriptionDao.getSubscriptionHistoryPageByUserId(userUuid, afterId, pageSize + 1);
+            return PageDto.fromLookahead(rows, pageSize, last -> PageCursor.encodeSubscriptionCursor(last.id()));
+        } catch (DataAccessException ex) {
+            log.error("Failed to get subs history page: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
     public int deleteSubscriptionByIdAndUserId(String id, int subId) {
         FullUserInfoDto foundUser = userService.getUserById(id);
         if (foundUser == null) {
@@ -85,12 +121,11 @@ public class SubscriptionService {
 
     }
 
-    public Collection<TopSubscription> getTopThreeSubscription() {
-        try {
-            return subscriptionDao.getTopThreeSubscription();
-        } catch (DataAccessException ex) {
-            log.error("Failed to get top 3 subs: {}", ex.getMessage());
-            throw new RuntimeException(ex);
-        }
+    public Collection<TopSubscription> getTopSubscriptions(int limit) {
+        return subscriptionLeaderboard.getTop(limit);
+    }
+
+    public int getMaxTopLimit() {
+        return subscriptionLeaderboard.getMaxSize();
     }
 }
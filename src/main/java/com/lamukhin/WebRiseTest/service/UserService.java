@@ -1,9 +1,14 @@
 package com.lamukhin.WebRiseTest.service;
 
+import com.lamukhin.WebRiseTest.cache.EmailBloomFilter;
+import com.lamukhin.WebRiseTest.cache.UserCache;
 import com.lamukhin.WebRiseTest.dao.UserDao;
 import com.lamukhin.WebRiseTest.dto.EntryUserDto;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
 import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.util.IdGenerator;
+import com.lamukhin.WebRiseTest.util.PageCursor;
 import com.lamukhin.WebRiseTest.util.ServiceUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +17,7 @@ import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -20,13 +26,13 @@ import java.util.UUID;
 public class UserService {
 
     private final UserDao userDao;
+    private final UserCache userCache;
+    private final IdGenerator idGenerator;
+    private final EmailBloomFilter emailBloomFilter;
 
     public UUID saveNewUser(EntryUserDto newData) {
         try {
-            if (userDao.findUserByEmail(newData.email()) != null) {
-                throw new DuplicateKeyException("User with email " + newData.email() + " already exists.");
-            }
-            UUID newUserUuid = UUID.randomUUID();
+            UUID newUserUuid = idGenerator.nextId();
             var newUser = new FullUserInfoDto(
                     newUserUuid,
                     newData.userName(),
@@ -35,7 +41,11 @@ public class UserService {
                     0
             );
 
-            userDao.saveNewUser(newUser);
+            boolean maybeTaken = emailBloomFilter.mightContain(newData.email());
+            if (!userDao.saveNewUser(newUser)) {
+                throw new DuplicateKeyException("User with email " + newData.email() + " already exists.");
+            }
+            emailBloomFilter.addWritten(newData.email(), maybeTaken);
             return newUserUuid;
         } catch (DataAccessException ex) {
             log.error("Failed to save a new user: {}", ex.getMessage());
@@ -46,23 +56,42 @@ public class UserService {
     public FullUserInfoDto getUserById(String id) {
         UUID userUuid = ServiceUtil.convertStringToUuid(id);
         try {
-            return userDao.findUserById(userUuid);
+            if (!userCache.isEnabled()) {
+                return userDao.findUserById(userUuid);
+            }
+            return userCache.get(userUuid, userDao::loadUserById);
         } catch (DataAccessException ex) {
             log.error("Failed to load user info: {}", ex.getMessage());
             throw new RuntimeException(ex);
         }
     }
 
+    public PageDto<FullUserInfoDto> getUsersPage(String cursor, Integer limit) {
+        PageCursor.UserPosition after = PageCursor.decodeUserCursor(cursor);
+        int pageSize = PageCursor.boundedPageSize(limit);
+        try {
+            List<FullUserInfoDto> rows = after == null
+                    ? userDao.getUsersPage(null, null, pageSize + 1)
+                    : userDao.getUsersPage(after.registrationTime(), after.id(), pageSize + 1);
+            return PageDto.fromLookahead(rows, pageSize,
+                    last -> PageCursor.encodeUserCursor(last.registrationTime(), last.id()));
+        } catch (DataAccessException ex) {
+            log.error("Failed to load users page: {}", ex.getMessage());
+            throw new RuntimeException(ex);
+        }
+    }
+
     public int updateUserById(String id, UpdateUserDataDto newData) {
         try {
-            if (newData.newEmail() != null) {
-                if (userDao.findUserByEmail(newData.email()) != null) {
-                    throw new DuplicateKeyException("User with email " + newData.email() + " already exists.");
-                }
-            }
             UUID userUuid = ServiceUtil.convertStringToUuid(id);
+            boolean maybeTaken = newData.newEmail() != null && emailBloomFilter.mightContain(newData.newEmail());
 
-            return userDao.updateUserById(userUuid, newData);
+            int updated = userDao.updateUserById(userUuid, newData);
+            userCache.invalidate(userUuid);
+            if (updated > 0 && newData.newEmail() != null) {
+                emailBloomFilter.addWritten(newData.newEmail(), maybeTaken);
+            }
+            return updated;
         } catch (DataAccessException ex) {
             log.error("Failed to update user info: {}", ex.getMessage());
             throw new RuntimeException(ex);
@@ -72,7 +101,9 @@ public class UserService {
     public int deleteUserById(String id) {
         UUID userUuid = ServiceUtil.convertStringToUuid(id);
         try {
-            return userDao.deleteUserById(userUuid);
+            int deleted = userDao.deleteUserById(userUuid);
+            userCache.invalidate(userUuid);
+            return deleted;
         } catch (DataAccessException ex) {
             log.error("Failed to update user info: {}", ex.getMessage());
             throw new RuntimeException(ex);
@@ -0,0 +1,8 @@
+package com.lamukhin.WebRiseTest.util;
+
+import java.util.UUID;
+
+public interface IdGenerator {
+
+    UUID nextId();
+}
@@ -0,0 +1,87 @@
+package com.lamukhin.WebRiseTest.util;
+
+import com.lamukhin.WebRiseTest.exception.IncorrectCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+public final class PageCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String SUBSCRIPTION_PREFIX = "s:";
+    private static final String USER_PREFIX = "u:";
+    private static final char SEPARATOR = '|';
+
+    private PageCursor() {
+    }
+
+    public record UserPosition(LocalDateTime registrationTime, UUID id) {
+    }
+
+    public static int boundedPageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    public static String encodeSubscriptionCursor(int lastId) {
+        return encode(SUBSCRIPTION_PREFIX + lastId);
+    }
+
+    public static Integer decodeSubscriptionCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        String value = decode(cursor, SUBSCRIPTION_PREFIX);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IncorrectCursorException();
+        }
+    }
+
+    public static String encodeUserCursor(LocalDateTime registrationTime, UUID id) {
+        return encode(USER_PREFIX + registrationTime + SEPARATOR + id);
+    }
+
+    public static UserPosition decodeUserCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        String value = decode(cursor, USER_PREFIX);
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IncorrectCursorException();
+        }
+        try {
+            return new UserPosition(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            throw new IncorrectCursorException();
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor, String prefix) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IncorrectCursorException();
+        }
+        if (!value.startsWith(prefix)) {
+            throw new IncorrectCursorException();
+        }
+        return value.substring(prefix.length());
+    }
+}
@@ -8,11 +8,51 @@ import java.util.UUID;
 @Slf4j
 public final class ServiceUtil {
 
+    private static final int UUID_LENGTH = 36;
+
     public static UUID convertStringToUuid(final String uuid) {
-        try {
-            return UUID.fromString(uuid);
-        } catch (IllegalArgumentException ex) {
+        UUID parsed = parseUuidOrNull(uuid);
+        if (parsed == null) {
             throw new IncorrectIdException();
         }
+        return parsed;
+    }
+
+    public static UUID parseUuidOrNull(final String uuid) {
+        if (uuid == null || uuid.length() != UUID_LENGTH
+                || uuid.charAt(8) != '-' || uuid.charAt(13) != '-'
+                || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            return null;
+        }
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int digit = hexDigit(uuid.charAt(i));
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                mostSigBits = (mostSigBits << 4) | digit;
+            } else {
+                leastSigBits = (leastSigBits << 4) | digit;
+            }
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
     }
 }
@@ -0,0 +1,12 @@
+--Оставляем по одной записи на пару пользователь/сервис, иначе индекс не создать
+DELETE
+FROM subscriptions s
+    USING subscriptions newer
+WHERE s.user_id = newer.user_id
+  AND s.service_name = newer.service_name
+  AND (s.end_time, s.id) < (newer.end_time, newer.id);
+
+UPDATE users u
+SET subscription_amount = (SELECT count(*) FROM subscriptions s WHERE s.user_id = u.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS unique_user_service_name ON subscriptions (user_id, service_name);
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS subscriptions_user_id_id_idx ON subscriptions (user_id, id);
+
+CREATE INDEX IF NOT EXISTS users_registration_time_id_idx ON users (registration_time, id);
@@ -0,0 +1,3 @@
+--user_id уже покрыт индексами unique_user_service_name и subscriptions_user_id_id_idx,
+--а для пересчёта лидерборда нужен индекс по service_name (с user_id для index only scan)
+CREATE INDEX IF NOT EXISTS subscriptions_service_name_user_id_idx ON subscriptions (service_name, user_id);
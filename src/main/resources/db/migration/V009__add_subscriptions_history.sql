@@ -0,0 +1,14 @@
+--Истёкшие подписки переносятся сюда фоновым архиватором, чтобы subscriptions и её индексы не разрастались
+CREATE TABLE IF NOT EXISTS subscriptions_history
+(
+    id            INTEGER PRIMARY KEY,
+    user_id       UUID REFERENCES users (id) ON DELETE CASCADE,
+    service_name  TEXT,
+    start_time    TIMESTAMP,
+    end_time      TIMESTAMP,
+    archived_time TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS subscriptions_history_user_id_id_idx ON subscriptions_history (user_id, id);
+--Архиватор идёт по истёкшим подпискам keyset-ом по (end_time, id)
+CREATE INDEX IF NOT EXISTS subscriptions_end_time_id_idx ON subscriptions (end_time, id);
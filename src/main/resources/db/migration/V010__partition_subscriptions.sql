@@ -0,0 +1,89 @@
+--Архив делим по месяцам archived_time: старые месяцы отцепляются и удаляются целиком (HistoryPartitionManager).
+--Уникальные ключи секционированной таблицы обязаны включать ключ секционирования, поэтому PK (id, archived_time)
+ALTER TABLE subscriptions_history RENAME TO subscriptions_history_unpartitioned;
+ALTER INDEX subscriptions_history_user_id_id_idx RENAME TO subscriptions_history_unpartitioned_user_id_id_idx;
+ALTER TABLE subscriptions_history_unpartitioned RENAME CONSTRAINT subscriptions_history_pkey TO subscriptions_history_unpartitioned_pkey;
+
+CREATE TABLE subscriptions_history
+(
+    id            INTEGER   NOT NULL,
+    user_id       UUID REFERENCES users (id) ON DELETE CASCADE,
+    service_name  TEXT,
+    start_time    TIMESTAMP,
+    end_time      TIMESTAMP,
+    archived_time TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, archived_time)
+) PARTITION BY RANGE (archived_time);
+
+DO
+$$
+    DECLARE
+        partition_month DATE;
+    BEGIN
+        FOR partition_month IN
+            SELECT generate_series(
+                           date_trunc('month', coalesce((SELECT min(archived_time) FROM subscriptions_history_unpartitioned),
+                                                        now())),
+                           date_trunc('month', now()) + interval '${history_partitions_ahead} month',
+                           interval '1 month')::date
+            LOOP
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF subscriptions_history FOR VALUES FROM (%L) TO (%L)',
+                               'subscriptions_history_' || to_char(partition_month, 'YYYY_MM'), partition_month, partition_month + interval '1 month');
+            END LOOP;
+    END
+$$;
+
+INSERT INTO subscriptions_history
+SELECT id, user_id, service_name, start_time, end_time, archived_time
+FROM subscriptions_history_unpartitioned;
+DROP TABLE subscriptions_history_unpartitioned;
+
+CREATE INDEX IF NOT EXISTS subscriptions_history_user_id_id_idx ON subscriptions_history (user_id, id);
+
+--subscriptions секционируется по hash(user_id), если subscriptions_hash_partitions > 1.
+--Все запросы DAO фильтруют по user_id, так что в план попадает одна секция.
+--Диапазон по start_time здесь не подходит: уникальность (user_id, service_name) нужна для upsert,
+--а продление подписки меняет start_time и переносило бы строку между секциями
+DO
+$$
+    DECLARE
+        partitions INTEGER := ${subscriptions_hash_partitions};
+    BEGIN
+        IF partitions < 2 THEN
+            RETURN;
+        END IF;
+
+        ALTER TABLE subscriptions RENAME TO subscriptions_unpartitioned;
+        ALTER TABLE subscriptions_unpartitioned RENAME CONSTRAINT subscriptions_pkey TO subscriptions_unpartitioned_pkey;
+        ALTER SEQUENCE subscriptions_id_seq OWNED BY NONE;
+        ALTER TABLE subscriptions_unpartitioned ALTER COLUMN id DROP DEFAULT;
+
+        CREATE TABLE subscriptions
+        (
+            id           INTEGER NOT NULL DEFAULT nextval('subscriptions_id_seq'),
+            user_id      UUID    NOT NULL REFERENCES users (id),
+            service_name TEXT,
+            start_time   TIMESTAMP,
+            end_time     TIMESTAMP,
+            PRIMARY KEY (user_id, id)
+        ) PARTITION BY HASH (user_id);
+        ALTER SEQUENCE subscriptions_id_seq OWNED BY subscriptions.id;
+
+        FOR i IN 0..partitions - 1
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF subscriptions FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                               'subscriptions_p' || i, partitions, i);
+            END LOOP;
+
+        --Подписки без пользователя недоступны через API и не проходят NOT NULL ключа секционирования
+        INSERT INTO subscriptions (id, user_id, service_name, start_time, end_time)
+        SELECT id, user_id, service_name, start_time, end_time
+        FROM subscriptions_unpartitioned
+        WHERE user_id IS NOT NULL;
+        DROP TABLE subscriptions_unpartitioned;
+
+        CREATE UNIQUE INDEX unique_user_service_name ON subscriptions (user_id, service_name);
+        CREATE INDEX subscriptions_service_name_user_id_idx ON subscriptions (service_name, user_id);
+        CREATE INDEX subscriptions_end_time_id_idx ON subscriptions (end_time, id);
+    END
+$$;
@@ -0,0 +1,9 @@
+--Страницы пользователей идут keyset-ом по (registration_time, id), строка с NULL в нём не найдётся ни одним курсором.
+--При сортировке по возрастанию NULL и так шли в конце, now() оставляет такие строки там же.
+UPDATE users
+SET registration_time = now()
+WHERE registration_time IS NULL;
+
+ALTER TABLE users
+    ALTER COLUMN registration_time SET DEFAULT now(),
+    ALTER COLUMN registration_time SET NOT NULL;
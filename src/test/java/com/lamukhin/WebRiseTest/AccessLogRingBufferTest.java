@@ -0,0 +1,70 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.accesslog.AccessLogRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void capacity_shouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(8, new AccessLogRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new AccessLogRingBuffer<Integer>(8).capacity());
+        assertEquals(2, new AccessLogRingBuffer<Integer>(0).capacity());
+    }
+
+    @Test
+    void offer_shouldRejectWhenFullAndAcceptAfterDrain() {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertTrue(buffer.offer(4));
+        assertEquals(3, buffer.drain(drained::add, 10));
+
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducers_shouldNeitherLoseNorDuplicateAcceptedElements() throws InterruptedException {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(1024);
+        int producers = 8;
+        int perProducer = 50_000;
+        AtomicInteger accepted = new AtomicInteger();
+        Set<Integer> consumed = new HashSet<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            buffer.drain(value -> assertTrue(consumed.add(value)), 256);
+        }
+        buffer.drain(value -> assertTrue(consumed.add(value)), Integer.MAX_VALUE);
+
+        assertEquals(accepted.get(), consumed.size());
+    }
+}
@@ -0,0 +1,44 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.controller.ApiExceptionHandler;
+import com.lamukhin.WebRiseTest.exception.SubscriptionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiExceptionHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+    @BeforeEach
+    void setUp() {
+        handler.bindTo(registry);
+    }
+
+    @Test
+    void mappedExceptions_shouldBeCountedByType() {
+        assertEquals(HttpStatus.BAD_REQUEST, handler.handleIncorrectId().getStatusCode());
+        handler.handleIncorrectId();
+        assertEquals(HttpStatus.NOT_FOUND, handler.handleUserNotFound().getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, handler.handleSubscription(new SubscriptionException("still active")).getStatusCode());
+
+        assertEquals(2, count("IncorrectIdException"));
+        assertEquals(1, count("UserNotFoundException"));
+        assertEquals(1, count("SubscriptionException"));
+    }
+
+    @Test
+    void constructingException_shouldNotBeCounted() {
+        new SubscriptionException("never thrown");
+
+        assertEquals(0, count("SubscriptionException"));
+    }
+
+    private double count(String exception) {
+        return registry.get("webrise.exceptions").tag("exception", exception).functionCounter().count();
+    }
+}
@@ -0,0 +1,72 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.datasource.BoundedDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private BoundedDataSource boundedDataSource;
+
+    @BeforeEach
+    void setUp() {
+        boundedDataSource = new BoundedDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_whenAllPermitsTaken_shouldTimeOut() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        boundedDataSource.getConnection();
+        boundedDataSource.getConnection();
+        assertEquals(0, boundedDataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, () -> boundedDataSource.getConnection());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_shouldReleasePermitOnlyOnce() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = boundedDataSource.getConnection();
+        first.close();
+        first.close();
+        assertEquals(2, boundedDataSource.getAvailablePermits());
+        assertTrue(first.isClosed());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_whenTargetFails_shouldReturnPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        assertThrows(SQLException.class, () -> boundedDataSource.getConnection());
+        assertEquals(2, boundedDataSource.getAvailablePermits());
+    }
+
+    @Test
+    void proxiedConnection_shouldDelegateOtherCalls() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+        Connection proxied = boundedDataSource.getConnection();
+        assertFalse(proxied.getAutoCommit());
+        proxied.setReadOnly(true);
+        verify(connection).setReadOnly(true);
+    }
+}
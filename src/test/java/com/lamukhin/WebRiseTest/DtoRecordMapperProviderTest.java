@@ -0,0 +1,135 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.DtoRecordMapperProvider;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.generated.tables.records.SubscriptionsRecord;
+import com.lamukhin.generated.tables.records.UsersRecord;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultRecordMapperProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.RecordComponent;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoRecordMapperProviderTest {
+
+    private static final UUID USER_ID = UUID.fromString("8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4f50");
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private DSLContext reflective;
+    private DSLContext compiled;
+
+    @BeforeEach
+    void setUp() {
+        reflective = DSL.using(SQLDialect.POSTGRES);
+        Configuration configuration = new DefaultConfiguration().set(SQLDialect.POSTGRES);
+        compiled = DSL.using(configuration.set(
+                new DtoRecordMapperProvider(new DefaultRecordMapperProvider(configuration))));
+    }
+
+    @Test
+    void userMapper_shouldMatchReflectiveMapping() {
+        UsersRecord user = user(compiled);
+
+        assertEquals(user(reflective).into(FullUserInfoDto.class), user.into(FullUserInfoDto.class));
+        assertEquals(new FullUserInfoDto(USER_ID, "Ivan", "ivan@mail.ru", NOW, 3), user.into(FullUserInfoDto.class));
+    }
+
+    @Test
+    void userMapper_shouldTreatNullSubscriptionAmountAsZero() {
+        UsersRecord user = user(compiled);
+        user.setSubscriptionAmount(null);
+
+        assertEquals(0, user.into(FullUserInfoDto.class).subscriptionAmount());
+    }
+
+    @Test
+    void subscriptionMapper_shouldMatchReflectiveMapping() {
+        assertEquals(subscription(reflective).into(FullSubscriptionInfoDto.class),
+                subscription(compiled).into(FullSubscriptionInfoDto.class));
+    }
+
+    @Test
+    void subscriptionMapper_shouldReadColumnsByResolvedIndex() {
+        Record reordered = subscription(compiled).into(SUBSCRIPTIONS.END_TIME, SUBSCRIPTIONS.SERVICE_NAME,
+                SUBSCRIPTIONS.USER_ID, SUBSCRIPTIONS.ID, SUBSCRIPTIONS.START_TIME);
+
+        assertEquals(new FullSubscriptionInfoDto(7, USER_ID, "Netflix", NOW, NOW.plusDays(30)),
+                reordered.into(FullSubscriptionInfoDto.class));
+    }
+
+    @Test
+    void topSubscriptionMapper_shouldMapAggregate() {
+        Field<Integer> subscribers = DSL.count().as(DtoRecordMapperProvider.AMOUNT_OF_SUBSCRIBERS);
+        Record top = compiled.newRecord(subscribers, SUBSCRIPTIONS.SERVICE_NAME);
+        top.set(subscribers, 12);
+        top.set(SUBSCRIPTIONS.SERVICE_NAME, "Netflix");
+
+        assertEquals(new TopSubscription("Netflix", 12), top.into(TopSubscription.class));
+    }
+
+    @Test
+    void provider_shouldFallBackWhenColumnsAreMissing() {
+        Record partial = compiled.newRecord(USERS.ID, USERS.EMAIL);
+        partial.set(USERS.ID, USER_ID);
+        partial.set(USERS.EMAIL, "ivan@mail.ru");
+
+        assertNull(DtoRecordMapperProvider.userMapper(compiled.newResult(USERS.ID, USERS.EMAIL).recordType()));
+        assertEquals("ivan@mail.ru", partial.into(FullUserInfoDto.class).email());
+    }
+
+    @Test
+    void tables_shouldStillMatchDtoComponents() {
+        assertColumnsMatch(USERS, FullUserInfoDto.class);
+        assertColumnsMatch(SUBSCRIPTIONS, FullSubscriptionInfoDto.class);
+        assertNotNull(DtoRecordMapperProvider.userMapper(USERS.recordType()));
+        assertNotNull(DtoRecordMapperProvider.subscriptionMapper(SUBSCRIPTIONS.recordType()));
+    }
+
+    private static void assertColumnsMatch(Table<?> table, Class<? extends java.lang.Record> dto) {
+        RecordComponent[] components = dto.getRecordComponents();
+        assertEquals(components.length, table.fields().length, "Column count of " + table.getName() + " changed");
+        for (RecordComponent component : components) {
+            String column = component.getName().replaceAll("([A-Z])", "_$1").toLowerCase();
+            Field<?> field = table.field(column);
+            assertNotNull(field, table.getName() + "." + column + " is missing");
+            Class<?> expected = component.getType() == int.class ? Integer.class : component.getType();
+            assertEquals(expected, field.getType(), table.getName() + "." + column + " changed its type");
+        }
+    }
+
+    private static UsersRecord user(DSLContext dsl) {
+        UsersRecord user = dsl.newRecord(USERS);
+        user.setId(USER_ID);
+        user.setUserName("Ivan");
+        user.setEmail("ivan@mail.ru");
+        user.setRegistrationTime(NOW);
+        user.setSubscriptionAmount(3);
+        return user;
+    }
+
+    private static SubscriptionsRecord subscription(DSLContext dsl) {
+        SubscriptionsRecord subscription = dsl.newRecord(SUBSCRIPTIONS);
+        subscription.setId(7);
+        subscription.setUserId(USER_ID);
+        subscription.setServiceName("Netflix");
+        subscription.setStartTime(NOW);
+        subscription.setEndTime(NOW.plusDays(30));
+        return subscription;
+    }
+}
@@ -0,0 +1,88 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.cache.EmailBloomFilter;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class EmailBloomFilterTest {
+
+    private final UserDao userDao = mock(UserDao.class);
+
+    @Test
+    void mightContain_shouldBeTrueUntilFirstRebuild() {
+        EmailBloomFilter filter = filter(1_000);
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("fresh@example.com"));
+    }
+
+    @Test
+    void rebuild_shouldNeverReportLoadedOrAddedEmailsAsMissing() {
+        streamEmails(50_000);
+        EmailBloomFilter filter = filter(1_000);
+
+        filter.rebuild();
+        filter.add("added@example.com");
+
+        assertTrue(filter.isReady());
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain("user-" + i + "@example.com"));
+        }
+        assertTrue(filter.mightContain("added@example.com"));
+    }
+
+    @Test
+    void rebuild_shouldKeepFalsePositiveRateNearTargetAfterGrowing() {
+        streamEmails(50_000);
+        EmailBloomFilter filter = filter(1_000);
+        filter.rebuild();
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void addWritten_whenFilterSaidMaybe_shouldCountFalsePositive() {
+        streamEmails(10);
+        EmailBloomFilter filter = filter(1_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        filter.rebuild();
+
+        filter.addWritten("user-1@example.com", true);
+        filter.addWritten("fresh@example.com", false);
+
+        assertEquals(1.0, registry.get("webrise.email_filter.false_positives").functionCounter().count());
+        assertTrue(filter.mightContain("fresh@example.com"));
+    }
+
+    private void streamEmails(int count) {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            for (int i = 0; i < count; i++) {
+                consumer.accept("user-" + i + "@example.com");
+            }
+            return null;
+        }).when(userDao).streamAllEmails(anyInt(), any());
+    }
+
+    private EmailBloomFilter filter(long initialCapacity) {
+        return new EmailBloomFilter(userDao, true, initialCapacity, 0.01, Duration.ofHours(12));
+    }
+}
@@ -0,0 +1,89 @@
+package com.lamukhin.WebRiseTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.service.ExportService;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private SubscriptionDao subscriptionDao;
+
+    private ObjectMapper objectMapper;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(userDao, subscriptionDao, objectMapper, 500);
+    }
+
+    @Test
+    void exportSubscriptions_shouldWriteOneJsonObjectPerLine() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2025, 5, 21, 10, 0);
+        FullSubscriptionInfoDto first = new FullSubscriptionInfoDto(1, userId, "Netflix", start, start.plusDays(30));
+        FullSubscriptionInfoDto second = new FullSubscriptionInfoDto(2, userId, "Spotify", start, start.plusDays(10));
+        doAnswer(invocation -> {
+            Consumer<FullSubscriptionInfoDto> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(subscriptionDao).streamAllSubscriptions(eq(500), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = exportService.exportSubscriptions(out);
+
+        assertEquals(2, exported);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(first, objectMapper.readValue(lines[0], FullSubscriptionInfoDto.class));
+        assertEquals(second, objectMapper.readValue(lines[1], FullSubscriptionInfoDto.class));
+    }
+
+    @Test
+    void exportUsers_whenDaoFails_shouldThrowRuntimeException() {
+        DataAccessException daoException = new DataAccessException("DB cursor error");
+        doThrow(daoException).when(userDao).streamAllUsers(eq(500), any());
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            exportService.exportUsers(new ByteArrayOutputStream());
+        });
+        assertEquals(daoException, exception.getCause());
+    }
+
+    @Test
+    void exportUsers_whenNoUsers_shouldWriteNothing() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, exportService.exportUsers(out));
+        assertEquals(0, out.size());
+    }
+}
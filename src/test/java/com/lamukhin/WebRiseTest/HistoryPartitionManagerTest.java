@@ -0,0 +1,98 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.HistoryPartitionDao;
+import com.lamukhin.WebRiseTest.service.HistoryPartitionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryPartitionManagerTest {
+
+    private static final YearMonth NOW = YearMonth.of(2026, 10);
+
+    @Mock
+    private HistoryPartitionDao historyPartitionDao;
+
+    @Test
+    void maintain_shouldCreateMissingFuturePartitions() {
+        when(historyPartitionDao.listPartitions()).thenReturn(List.of(
+                "subscriptions_history_2026_10",
+                "subscriptions_history_2026_11"));
+
+        manager(2, 12, true).maintain(NOW);
+
+        verify(historyPartitionDao).createPartition(YearMonth.of(2026, 12));
+        verify(historyPartitionDao, never()).createPartition(NOW);
+        verify(historyPartitionDao, never()).detachPartition(any());
+    }
+
+    @Test
+    void maintain_shouldDetachAndDropPartitionsOlderThanRetention() {
+        when(historyPartitionDao.listPartitions()).thenReturn(List.of(
+                "subscriptions_history_2025_09",
+                "subscriptions_history_2025_10",
+                "subscriptions_history_2026_10"));
+
+        manager(0, 12, true).maintain(NOW);
+
+        verify(historyPartitionDao).detachPartition("subscriptions_history_2025_09");
+        verify(historyPartitionDao).dropTable("subscriptions_history_2025_09");
+        verify(historyPartitionDao, never()).detachPartition("subscriptions_history_2025_10");
+    }
+
+    @Test
+    void maintain_shouldLeavePartitionsWithForeignNamesAlone() {
+        when(historyPartitionDao.listPartitions()).thenReturn(List.of(
+                "subscriptions_history_default",
+                "subscriptions_history_2020_01_manual",
+                "subscriptions_history_2020_13",
+                "subscriptions_history_2020",
+                "subscriptions_history_2026_10"));
+
+        manager(0, 12, true).maintain(NOW);
+
+        verify(historyPartitionDao, never()).detachPartition(any());
+        verify(historyPartitionDao, never()).dropTable(any());
+    }
+
+    @Test
+    void maintain_shouldOnlyDetachWhenDropIsDisabled() {
+        when(historyPartitionDao.listPartitions()).thenReturn(List.of(
+                "subscriptions_history_2020_01",
+                "subscriptions_history_2026_10"));
+
+        manager(0, 12, false).maintain(NOW);
+
+        verify(historyPartitionDao).detachPartition("subscriptions_history_2020_01");
+        verify(historyPartitionDao, never()).dropTable(any());
+    }
+
+    @Test
+    void maintain_shouldFinalizeInterruptedDetachBeforeListing() {
+        when(historyPartitionDao.listPendingDetach()).thenReturn(List.of("subscriptions_history_2025_08"));
+        when(historyPartitionDao.listPartitions()).thenReturn(List.of("subscriptions_history_2026_10"));
+
+        manager(0, 12, true).maintain(NOW);
+
+        InOrder inOrder = inOrder(historyPartitionDao);
+        inOrder.verify(historyPartitionDao).finalizeDetach("subscriptions_history_2025_08");
+        inOrder.verify(historyPartitionDao).dropTable("subscriptions_history_2025_08");
+        inOrder.verify(historyPartitionDao).listPartitions();
+        verify(historyPartitionDao, never()).detachPartition(any());
+    }
+
+    private HistoryPartitionManager manager(int monthsAhead, int retentionMonths, boolean dropDetached) {
+        return new HistoryPartitionManager(historyPartitionDao, monthsAhead, retentionMonths, dropDetached,
+                Duration.ofHours(6));
+    }
+}
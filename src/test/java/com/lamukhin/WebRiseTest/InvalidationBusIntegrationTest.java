@@ -0,0 +1,56 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dto.EntryUserDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusIntegrationTest {
+
+    @Test
+    void userUpdateOnOneNode_shouldEvictCachedUserOnAnother() throws InterruptedException {
+        try (ConfigurableApplicationContext firstNode = startNode();
+             ConfigurableApplicationContext secondNode = startNode()) {
+            UserService firstUsers = firstNode.getBean(UserService.class);
+            UserService secondUsers = secondNode.getBean(UserService.class);
+
+            String email = "bus-" + UUID.randomUUID() + "@example.com";
+            String userId = firstUsers.saveNewUser(new EntryUserDto("BeforeUpdate", email)).toString();
+            assertEquals("BeforeUpdate", secondUsers.getUserById(userId).userName());
+
+            firstUsers.updateUserById(userId, new UpdateUserDataDto("AfterUpdate", email, null, 0));
+            assertTrue(eventually(() -> "AfterUpdate".equals(secondUsers.getUserById(userId).userName())));
+
+            firstUsers.deleteUserById(userId);
+            assertTrue(eventually(() -> {
+                FullUserInfoDto user = secondUsers.getUserById(userId);
+                return user == null;
+            }));
+        }
+    }
+
+    private ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(WebRiseTestApplication.class)
+                .properties("server.port=0")
+                .run();
+    }
+
+    private boolean eventually(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.get()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.QueryCatalog;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.generated.tables.records.UsersRecord;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Subscriptions.SUBSCRIPTIONS;
+import static com.lamukhin.generated.tables.Users.USERS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCatalogTest {
+
+    private static final UUID USER_ID = UUID.fromString("8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4f50");
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+
+    @Test
+    void userById_shouldMatchBuilderQuery() {
+        assertSameSql(dsl.selectFrom(USERS).where(USERS.ID.eq(USER_ID)),
+                QueryCatalog.userById(dsl, USER_ID));
+    }
+
+    @Test
+    void usersPage_shouldMatchBuilderQueryForBothShapes() {
+        assertSameSql(dsl.selectFrom(USERS).orderBy(USERS.REGISTRATION_TIME, USERS.ID).limit(101),
+                QueryCatalog.usersPage(dsl, null, null, 101));
+        assertSameSql(dsl.selectFrom(USERS)
+                        .where(DSL.row(USERS.REGISTRATION_TIME, USERS.ID).gt(NOW, USER_ID))
+                        .orderBy(USERS.REGISTRATION_TIME, USERS.ID)
+                        .limit(101),
+                QueryCatalog.usersPage(dsl, NOW, USER_ID, 101));
+    }
+
+    @Test
+    void subscriptionQueries_shouldMatchBuilderQueries() {
+        assertSameSql(dsl.selectFrom(SUBSCRIPTIONS).where(SUBSCRIPTIONS.USER_ID.eq(USER_ID)),
+                QueryCatalog.subscriptionsByUserId(dsl, USER_ID));
+        assertSameSql(dsl.selectFrom(SUBSCRIPTIONS)
+                        .where(SUBSCRIPTIONS.USER_ID.eq(USER_ID))
+                        .orderBy(SUBSCRIPTIONS.ID)
+                        .limit(101),
+                QueryCatalog.subscriptionsPage(dsl, USER_ID, null, 101));
+        assertSameSql(dsl.selectFrom(SUBSCRIPTIONS)
+                        .where(SUBSCRIPTIONS.USER_ID.eq(USER_ID))
+                        .and(SUBSCRIPTIONS.ID.gt(7))
+                        .orderBy(SUBSCRIPTIONS.ID)
+                        .limit(101),
+                QueryCatalog.subscriptionsPage(dsl, USER_ID, 7, 101));
+    }
+
+    @Test
+    void userById_shouldReadTypedRecords() {
+        Result<UsersRecord> users = dsl.newResult(USERS);
+        UsersRecord user = dsl.newRecord(USERS);
+        user.setId(USER_ID);
+        user.setUserName("user");
+        user.setEmail("user@example.com");
+        user.setRegistrationTime(NOW);
+        user.setSubscriptionAmount(3);
+        users.add(user);
+        DSLContext mocked = DSL.using(new MockConnection(context -> {
+            assertArrayEquals(new Object[]{USER_ID}, context.bindings());
+            return new MockResult[]{new MockResult(1, users)};
+        }), SQLDialect.POSTGRES);
+
+        FullUserInfoDto found = QueryCatalog.userById(mocked, USER_ID).fetchOneInto(FullUserInfoDto.class);
+
+        assertEquals(new FullUserInfoDto(USER_ID, "user", "user@example.com", NOW, 3), found);
+    }
+
+    private void assertSameSql(Query builder, Query catalog) {
+        assertEquals(dsl.renderInlined(builder), dsl.renderInlined(catalog));
+        assertEquals(builder.getBindValues(), catalog.getBindValues());
+    }
+}
@@ -0,0 +1,195 @@
+package com.lamukhin.WebRiseTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryPlanTest {
+
+    private static final int SEEDED_USERS = 20_000;
+    private static final int SERVICES_PER_USER = 5;
+    private static final Pattern CHECKED_TABLES = Pattern.compile("users|subscriptions(_p\\d+)?");
+
+    @Autowired
+    private SubscriptionDao subscriptionDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FullUserInfoDto seededUser;
+    private FullSubscriptionInfoDto seededSubscription;
+
+    @BeforeEach
+    void seed() {
+        String prefix = "plan-" + UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO users (id, user_name, email, registration_time, subscription_amount)
+                SELECT gen_random_uuid(), 'user-' || i, ? || '-' || i || '@example.com',
+                       now() - i * interval '1 minute', ?
+                FROM generate_series(1, ?) AS i
+                """, prefix, SERVICES_PER_USER, SEEDED_USERS);
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (user_id, service_name, start_time, end_time)
+                SELECT u.id, 'service-' || s, now(), now() + interval '30 days'
+                FROM users u
+                         CROSS JOIN generate_series(1, ?) AS s
+                WHERE u.email LIKE ? || '-%'
+                """, SERVICES_PER_USER, prefix);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE subscriptions");
+
+        UUID seededId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", UUID.class,
+                prefix + "-" + SEEDED_USERS / 2 + "@example.com");
+        seededUser = userDao.findUserById(seededId);
+        seededSubscription = subscriptionDao.getSubscriptionByUserIdAndName(seededUser.id(), "service-1");
+        statementRecorder.clear();
+    }
+
+    @Test
+    void findUserById_shouldUseIndex() {
+        userDao.findUserById(seededUser.id());
+        assertNoSeqScans();
+    }
+
+    @Test
+    void updateUserById_shouldUseIndex() {
+        userDao.updateUserById(seededUser.id(), new UpdateUserDataDto("renamed", seededUser.email(), null, 0));
+        assertNoSeqScans();
+    }
+
+    @Test
+    void getUsersPage_shouldUseIndex() {
+        userDao.getUsersPage(null, null, 101);
+        userDao.getUsersPage(seededUser.registrationTime(), seededUser.id(), 101);
+        assertNoSeqScans();
+    }
+
+    @Test
+    void getSubscriptionByUserIdAndName_shouldUseIndex() {
+        subscriptionDao.getSubscriptionByUserIdAndName(seededUser.id(), "service-2");
+        assertNoSeqScans();
+    }
+
+    @Test
+    void getAllSubscriptionsByUserId_shouldUseIndex() {
+        subscriptionDao.getAllSubscriptionsByUserId(seededUser.id());
+        assertNoSeqScans();
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_shouldUseIndex() {
+        subscriptionDao.getSubscriptionsPageByUserId(seededUser.id(), null, 101);
+        subscriptionDao.getSubscriptionsPageByUserId(seededUser.id(), seededSubscription.id(), 101);
+        assertNoSeqScans();
+    }
+
+    @Test
+    void upsertSubscription_shouldUseIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        subscriptionDao.upsertSubscription(new FullSubscriptionInfoDto(null, seededUser.id(), "service-new", now, now.plusDays(30)));
+        subscriptionDao.upsertSubscription(new FullSubscriptionInfoDto(null, seededUser.id(), "service-1", now, now.plusDays(30)));
+        assertNoSeqScans();
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUser_shouldUseIndex() {
+        subscriptionDao.deleteSubscriptionByIdAndUser(seededUser, seededSubscription.id());
+        assertNoSeqScans();
+    }
+
+    private void assertNoSeqScans() {
+        List<String> statements = statementRecorder.getStatements();
+        assertFalse(statements.isEmpty(), "DAO call did not reach the database");
+        for (String sql : statements) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+            List<String> seqScans = new ArrayList<>();
+            try {
+                collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), seqScans);
+            } catch (Exception e) {
+                fail("Could not read plan for: " + sql, e);
+            }
+            assertTrue(seqScans.isEmpty(), "Seq Scan on " + seqScans + " for: " + sql + "\n" + plan);
+        }
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String relation = node.path("Relation Name").asText();
+            if (CHECKED_TABLES.matcher(relation).matches()) {
+                seqScans.add(relation);
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfiguration {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        ExecuteListenerProvider statementRecorderListenerProvider(StatementRecorder statementRecorder) {
+            return new DefaultExecuteListenerProvider(statementRecorder);
+        }
+    }
+
+    static class StatementRecorder implements ExecuteListener {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void executeStart(ExecuteContext ctx) {
+            if (ctx.query() != null) {
+                statements.add(ctx.dsl().renderInlined(ctx.query()));
+            }
+        }
+
+        List<String> getStatements() {
+            return List.copyOf(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+}
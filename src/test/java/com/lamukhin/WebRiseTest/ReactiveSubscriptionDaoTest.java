@@ -0,0 +1,109 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.ReactiveSubscriptionDao;
+import com.lamukhin.WebRiseTest.dao.ReactiveUserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("reactive")
+class ReactiveSubscriptionDaoTest {
+
+    @Autowired
+    private ReactiveSubscriptionDao reactiveSubscriptionDao;
+
+    @Autowired
+    private ReactiveUserDao reactiveUserDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private FullUserInfoDto user;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void createUser() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, user_name, email, registration_time, subscription_amount) "
+                + "VALUES (?, 'reactive', ?, now(), 0)", id, "reactive-" + id + "@example.com");
+        user = reactiveUserDao.findUserById(id).block();
+    }
+
+    @AfterEach
+    void deleteUser() {
+        reactiveUserDao.deleteUserById(user.id()).block();
+    }
+
+    @Test
+    void upsertSubscription_shouldCreateThenReportStillActive() {
+        FullSubscriptionInfoDto subscription = subscription("netflix", now.plusDays(30));
+
+        SubscriptionUpsertResult created = reactiveSubscriptionDao.upsertSubscription(subscription).block();
+        SubscriptionUpsertResult repeated = reactiveSubscriptionDao
+                .upsertSubscription(subscription("netflix", now.plusDays(60))).block();
+
+        assertEquals(SubscriptionUpsertStatus.CREATED, created.status());
+        assertEquals(SubscriptionUpsertStatus.STILL_ACTIVE, repeated.status());
+        assertEquals(now.plusDays(30), repeated.activeUntil());
+        assertEquals(1, subscriptionAmount());
+    }
+
+    @Test
+    void upsertSubscription_whenUserIsMissing_shouldReportUserNotFound() {
+        FullSubscriptionInfoDto subscription = new FullSubscriptionInfoDto(null, UUID.randomUUID(), "netflix",
+                now, now.plusDays(30));
+
+        assertEquals(SubscriptionUpsertStatus.USER_NOT_FOUND,
+                reactiveSubscriptionDao.upsertSubscription(subscription).block().status());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUser_shouldDeleteAndDecrementInOneTransaction() {
+        reactiveSubscriptionDao.upsertSubscription(subscription("netflix", now.plusDays(30))).block();
+        FullSubscriptionInfoDto saved = reactiveSubscriptionDao.getSubscriptionByUserIdAndName(user.id(), "netflix").block();
+
+        assertEquals(1, reactiveSubscriptionDao.deleteSubscriptionByIdAndUser(user, saved.id()).block());
+
+        assertNull(reactiveSubscriptionDao.getSubscriptionByUserIdAndName(user.id(), "netflix").block());
+        assertEquals(0, subscriptionAmount());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUser_whenSubscriptionIsMissing_shouldReturnZeroAndKeepAmount() {
+        reactiveSubscriptionDao.upsertSubscription(subscription("netflix", now.plusDays(30))).block();
+
+        assertEquals(0, reactiveSubscriptionDao.deleteSubscriptionByIdAndUser(user, -1).block());
+
+        assertEquals(1, subscriptionAmount());
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_whenQueryFails_shouldMapToDataAccessException() {
+        assertThrows(DataAccessException.class,
+                () -> reactiveSubscriptionDao.getSubscriptionsPageByUserId(user.id(), null, -1).collectList().block());
+    }
+
+    private FullSubscriptionInfoDto subscription(String serviceName, LocalDateTime endTime) {
+        return new FullSubscriptionInfoDto(null, user.id(), serviceName, now, endTime);
+    }
+
+    private int subscriptionAmount() {
+        return jdbcTemplate.queryForObject("SELECT subscription_amount FROM users WHERE id = ?", Integer.class, user.id());
+    }
+}
@@ -0,0 +1,166 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.ReactiveSubscriptionDao;
+import com.lamukhin.WebRiseTest.dto.EntrySubscriptionDto;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
+import com.lamukhin.WebRiseTest.exception.IncorrectCursorException;
+import com.lamukhin.WebRiseTest.exception.SubscriptionException;
+import com.lamukhin.WebRiseTest.exception.UserNotFoundException;
+import com.lamukhin.WebRiseTest.service.ReactiveSubscriptionService;
+import com.lamukhin.WebRiseTest.service.ReactiveUserService;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import com.lamukhin.WebRiseTest.util.PageCursor;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveSubscriptionServiceTest {
+
+    @Mock
+    private ReactiveSubscriptionDao reactiveSubscriptionDao;
+
+    @Mock
+    private ReactiveUserService reactiveUserService;
+
+    @Mock
+    private SubscriptionLeaderboard subscriptionLeaderboard;
+
+    @InjectMocks
+    private ReactiveSubscriptionService reactiveSubscriptionService;
+
+    private final UUID userUuid = UUID.randomUUID();
+    private final String userId = userUuid.toString();
+    private final EntrySubscriptionDto entry = new EntrySubscriptionDto("Netflix", 30);
+
+    @Test
+    void addSubscriptionByUserId_whenCreated_shouldReturnOneAndPassSubscription() {
+        when(reactiveSubscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                .thenReturn(Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.CREATED, LocalDateTime.now())));
+
+        assertEquals(1, reactiveSubscriptionService.addSubscriptionByUserId(userId, entry).block());
+
+        ArgumentCaptor<FullSubscriptionInfoDto> captor = ArgumentCaptor.forClass(FullSubscriptionInfoDto.class);
+        verify(reactiveSubscriptionDao).upsertSubscription(captor.capture());
+        assertEquals(userUuid, captor.getValue().userId());
+        assertEquals("Netflix", captor.getValue().serviceName());
+        assertEquals(captor.getValue().startTime().plusDays(30).toLocalDate(), captor.getValue().endTime().toLocalDate());
+    }
+
+    @Test
+    void addSubscriptionByUserId_whenStillActive_shouldFailWithEndTime() {
+        LocalDateTime activeUntil = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(reactiveSubscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                .thenReturn(Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.STILL_ACTIVE, activeUntil)));
+
+        SubscriptionException exception = assertThrows(SubscriptionException.class,
+                () -> reactiveSubscriptionService.addSubscriptionByUserId(userId, entry).block());
+
+        assertEquals("Subscription is not ended yet! It ends at " + activeUntil, exception.getMessage());
+    }
+
+    @Test
+    void addSubscriptionByUserId_whenUserIsMissing_shouldFailWithUserNotFound() {
+        when(reactiveSubscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                .thenReturn(Mono.just(new SubscriptionUpsertResult(SubscriptionUpsertStatus.USER_NOT_FOUND, null)));
+
+        assertThrows(UserNotFoundException.class,
+                () -> reactiveSubscriptionService.addSubscriptionByUserId(userId, entry).block());
+    }
+
+    @Test
+    void addSubscriptionByUserId_whenDaoFails_shouldWrapDataAccessException() {
+        DataAccessException daoException = new DataAccessException("DB upsert error");
+        when(reactiveSubscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                .thenReturn(Mono.error(daoException));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reactiveSubscriptionService.addSubscriptionByUserId(userId, entry).block());
+
+        assertSame(daoException, exception.getCause());
+    }
+
+    @Test
+    void getAllSubscriptionsByUserId_whenDaoFailsMidStream_shouldWrapDataAccessException() {
+        FullSubscriptionInfoDto subscription = new FullSubscriptionInfoDto(1, userUuid, "Netflix",
+                LocalDateTime.now(), LocalDateTime.now().plusDays(30));
+        DataAccessException daoException = new DataAccessException("connection reset");
+        when(reactiveSubscriptionDao.getAllSubscriptionsByUserId(userUuid))
+                .thenReturn(Flux.concat(Flux.just(subscription), Flux.error(daoException)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reactiveSubscriptionService.getAllSubscriptionsByUserId(userId).collectList().block());
+
+        assertSame(daoException, exception.getCause());
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_shouldContinueAfterCursor() {
+        FullSubscriptionInfoDto first = new FullSubscriptionInfoDto(8, userUuid, "a", LocalDateTime.now(), LocalDateTime.now());
+        FullSubscriptionInfoDto second = new FullSubscriptionInfoDto(9, userUuid, "b", LocalDateTime.now(), LocalDateTime.now());
+        when(reactiveSubscriptionDao.getSubscriptionsPageByUserId(userUuid, 7, 2)).thenReturn(Flux.just(first, second));
+
+        PageDto<FullSubscriptionInfoDto> page = reactiveSubscriptionService
+                .getSubscriptionsPageByUserId(userId, PageCursor.encodeSubscriptionCursor(7), 1).block();
+
+        assertEquals(List.of(first), List.copyOf(page.items()));
+        assertEquals(8, PageCursor.decodeSubscriptionCursor(page.nextCursor()));
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_whenCursorIsBroken_shouldFailWithoutDaoCall() {
+        assertThrows(IncorrectCursorException.class,
+                () -> reactiveSubscriptionService.getSubscriptionsPageByUserId(userId, "not-a-cursor", 2).block());
+        verifyNoInteractions(reactiveSubscriptionDao);
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUserId_shouldDeleteForFoundUser() {
+        FullUserInfoDto user = new FullUserInfoDto(userUuid, "user", "user@example.com", LocalDateTime.now(), 1);
+        when(reactiveUserService.getUserById(userId)).thenReturn(Mono.just(user));
+        when(reactiveSubscriptionDao.deleteSubscriptionByIdAndUser(user, 5)).thenReturn(Mono.just(1));
+
+        assertEquals(1, reactiveSubscriptionService.deleteSubscriptionByIdAndUserId(userId, 5).block());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUserId_whenUserIsMissing_shouldFailWithUserNotFound() {
+        when(reactiveUserService.getUserById(userId)).thenReturn(Mono.empty());
+
+        assertThrows(UserNotFoundException.class,
+                () -> reactiveSubscriptionService.deleteSubscriptionByIdAndUserId(userId, 5).block());
+        verify(reactiveSubscriptionDao, never()).deleteSubscriptionByIdAndUser(any(), anyInt());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUserId_whenDaoFails_shouldWrapDataAccessException() {
+        FullUserInfoDto user = new FullUserInfoDto(userUuid, "user", "user@example.com", LocalDateTime.now(), 1);
+        DataAccessException daoException = new DataAccessException("DB delete error");
+        when(reactiveUserService.getUserById(userId)).thenReturn(Mono.just(user));
+        when(reactiveSubscriptionDao.deleteSubscriptionByIdAndUser(user, 5)).thenReturn(Mono.error(daoException));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reactiveSubscriptionService.deleteSubscriptionByIdAndUserId(userId, 5).block());
+
+        assertSame(daoException, exception.getCause());
+    }
+}
@@ -0,0 +1,189 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.cache.EmailBloomFilter;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.ReactiveUserDao;
+import com.lamukhin.WebRiseTest.dto.EntryUserDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
+import com.lamukhin.WebRiseTest.exception.IncorrectIdException;
+import com.lamukhin.WebRiseTest.service.ReactiveUserService;
+import com.lamukhin.WebRiseTest.util.IdGenerator;
+import com.lamukhin.WebRiseTest.util.PageCursor;
+import com.lamukhin.WebRiseTest.util.TimeOrderedIdGenerator;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserDao reactiveUserDao;
+
+    @Spy
+    private UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(5));
+
+    @Spy
+    private IdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @InjectMocks
+    private ReactiveUserService reactiveUserService;
+
+    private final UUID testUuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private final String testId = testUuid.toString();
+    private FullUserInfoDto testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new FullUserInfoDto(testUuid, "TestUser", "test@example.com", LocalDateTime.now(), 0);
+    }
+
+    @Test
+    void saveNewUser_whenInserted_shouldReturnGeneratedUuid() {
+        when(reactiveUserDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(Mono.just(true));
+
+        UUID id = reactiveUserService.saveNewUser(new EntryUserDto("TestUser", "test@example.com")).block();
+
+        ArgumentCaptor<FullUserInfoDto> captor = ArgumentCaptor.forClass(FullUserInfoDto.class);
+        verify(reactiveUserDao).saveNewUser(captor.capture());
+        assertEquals(id, captor.getValue().id());
+        assertEquals("test@example.com", captor.getValue().email());
+    }
+
+    @Test
+    void saveNewUser_whenEmailTaken_shouldFailWithDuplicateKeyException() {
+        when(reactiveUserDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(Mono.just(false));
+
+        Mono<UUID> save = reactiveUserService.saveNewUser(new EntryUserDto("TestUser", "test@example.com"));
+
+        DuplicateKeyException exception = assertThrows(DuplicateKeyException.class, save::block);
+        assertEquals("User with email test@example.com already exists.", exception.getMessage());
+    }
+
+    @Test
+    void saveNewUser_whenDaoFails_shouldWrapDataAccessException() {
+        DataAccessException daoException = new DataAccessException("DB save error");
+        when(reactiveUserDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(Mono.error(daoException));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reactiveUserService.saveNewUser(new EntryUserDto("TestUser", "test@example.com")).block());
+
+        assertSame(daoException, exception.getCause());
+    }
+
+    @Test
+    void getUserById_shouldLoadOnceAndServeFromCache() {
+        when(reactiveUserDao.findUserById(testUuid)).thenReturn(Mono.just(testUser));
+
+        assertEquals(testUser, reactiveUserService.getUserById(testId).block());
+        assertEquals(testUser, reactiveUserService.getUserById(testId).block());
+
+        verify(reactiveUserDao, times(1)).findUserById(testUuid);
+    }
+
+    @Test
+    void getUserById_whenUserNotFound_shouldCompleteEmptyAndNotCache() {
+        when(reactiveUserDao.findUserById(testUuid)).thenReturn(Mono.empty(), Mono.just(testUser));
+
+        assertNull(reactiveUserService.getUserById(testId).block());
+        assertEquals(testUser, reactiveUserService.getUserById(testId).block());
+    }
+
+    @Test
+    void getUserById_whenInvalidatedDuringLoad_shouldNotCacheLoadedRow() throws Exception {
+        FullUserInfoDto renamed = new FullUserInfoDto(testUuid, "renamed", "test@example.com", testUser.registrationTime(), 0);
+        UpdateUserDataDto newData = new UpdateUserDataDto("renamed", null, null, 0);
+        CompletableFuture<FullUserInfoDto> staleRow = new CompletableFuture<>();
+        when(reactiveUserDao.findUserById(testUuid)).thenReturn(Mono.fromFuture(staleRow), Mono.just(renamed));
+        when(reactiveUserDao.updateUserById(testUuid, newData)).thenReturn(Mono.just(1));
+
+        CompletableFuture<FullUserInfoDto> inFlight = reactiveUserService.getUserById(testId).toFuture();
+        reactiveUserService.updateUserById(testId, newData).block();
+        staleRow.complete(testUser);
+
+        assertEquals(testUser, inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals(renamed, reactiveUserService.getUserById(testId).block());
+        verify(reactiveUserDao, times(2)).findUserById(testUuid);
+    }
+
+    @Test
+    void getUserById_whenIdIsInvalid_shouldFailOnSubscribeWithoutDaoCall() {
+        Mono<FullUserInfoDto> user = reactiveUserService.getUserById("garbage");
+
+        assertThrows(IncorrectIdException.class, user::block);
+        verifyNoInteractions(reactiveUserDao);
+    }
+
+    @Test
+    void getUsersPage_shouldBuildNextCursorFromLookahead() {
+        LocalDateTime registered = LocalDateTime.of(2025, 5, 21, 10, 0, 0);
+        FullUserInfoDto second = new FullUserInfoDto(UUID.randomUUID(), "second", "second@example.com",
+                registered.plusMinutes(1), 0);
+        FullUserInfoDto first = new FullUserInfoDto(testUuid, "first", "first@example.com", registered, 0);
+        when(reactiveUserDao.getUsersPage(null, null, 2)).thenReturn(Flux.just(first, second));
+
+        PageDto<FullUserInfoDto> page = reactiveUserService.getUsersPage(null, 1).block();
+
+        assertEquals(List.of(first), List.copyOf(page.items()));
+        PageCursor.UserPosition next = PageCursor.decodeUserCursor(page.nextCursor());
+        assertEquals(registered, next.registrationTime());
+        assertEquals(testUuid, next.id());
+    }
+
+    @Test
+    void updateUserById_shouldInvalidateCachedUser() {
+        UpdateUserDataDto newData = new UpdateUserDataDto("renamed", null, null, 0);
+        when(reactiveUserDao.findUserById(testUuid)).thenReturn(Mono.just(testUser));
+        when(reactiveUserDao.updateUserById(testUuid, newData)).thenReturn(Mono.just(1));
+        reactiveUserService.getUserById(testId).block();
+
+        assertEquals(1, reactiveUserService.updateUserById(testId, newData).block());
+
+        assertNull(userCache.getIfPresent(testUuid));
+    }
+
+    @Test
+    void updateUserById_whenEmailTaken_shouldPropagateDuplicateKeyException() {
+        UpdateUserDataDto newData = new UpdateUserDataDto("renamed", null, "taken@example.com", 0);
+        when(reactiveUserDao.updateUserById(testUuid, newData))
+                .thenReturn(Mono.error(new DuplicateKeyException("unique_email")));
+
+        assertThrows(DuplicateKeyException.class, () -> reactiveUserService.updateUserById(testId, newData).block());
+    }
+
+    @Test
+    void deleteUserById_whenDaoFails_shouldWrapDataAccessExceptionAndKeepCache() {
+        DataAccessException daoException = new DataAccessException("DB delete error");
+        when(reactiveUserDao.findUserById(testUuid)).thenReturn(Mono.just(testUser));
+        when(reactiveUserDao.deleteUserById(testUuid)).thenReturn(Mono.error(daoException));
+        reactiveUserService.getUserById(testId).block();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reactiveUserService.deleteUserById(testId).block());
+
+        assertSame(daoException, exception.getCause());
+        assertEquals(testUser, userCache.getIfPresent(testUuid));
+    }
+}
@@ -0,0 +1,147 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRead;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRouter;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRouterTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+
+    private final ReplicaRouter router = new ReplicaRouter(primary, List.of(first, second),
+            ReplicaRouter.Selection.ROUND_ROBIN);
+
+    ReplicaRouterTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+    }
+
+    @AfterEach
+    void clearTransactionState() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_shouldUsePrimaryOutsideReplicaRead() throws SQLException {
+        assertSame(primaryConnection, router.getConnection());
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_shouldRoundRobinReplicasInsideReplicaRead() throws SQLException {
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            assertSame(firstConnection, router.getConnection());
+            assertSame(secondConnection, router.getConnection());
+            assertSame(firstConnection, router.getConnection());
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+        assertSame(primaryConnection, router.getConnection());
+    }
+
+    @Test
+    void getConnection_shouldFallBackToPrimaryAndSkipFailedReplica() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("replica is down"));
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            assertSame(primaryConnection, router.getConnection());
+            assertEquals(1, router.getHealthyReplicas());
+            assertSame(secondConnection, router.getConnection());
+            assertSame(secondConnection, router.getConnection());
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+    }
+
+    @Test
+    void getConnection_shouldKeepReplicaWhenItsPoolIsExhausted() throws SQLException {
+        when(first.getConnection())
+                .thenThrow(new SQLTransientConnectionException("replica-0 - Connection is not available"))
+                .thenReturn(firstConnection);
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            assertSame(primaryConnection, router.getConnection());
+            assertEquals(2, router.getHealthyReplicas());
+            assertSame(secondConnection, router.getConnection());
+            assertSame(firstConnection, router.getConnection());
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+    }
+
+    @Test
+    void getConnection_shouldMarkReplicaUnhealthyWhenTimeoutHasConnectionFailure() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "replica-0 - Connection is not available", new SQLException("Connection refused")));
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            assertSame(primaryConnection, router.getConnection());
+            assertEquals(1, router.getHealthyReplicas());
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+    }
+
+    @Test
+    void checkHealth_shouldReturnReplicaAfterRecovery() throws SQLException {
+        when(first.getConnection())
+                .thenThrow(new SQLException("replica is down"))
+                .thenReturn(firstConnection);
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        when(secondConnection.isValid(anyInt())).thenReturn(true);
+
+        router.checkHealth(1);
+        assertEquals(1, router.getHealthyReplicas());
+
+        router.checkHealth(1);
+        assertEquals(2, router.getHealthyReplicas());
+    }
+
+    @Test
+    void getConnection_shouldUsePrimaryInsideReadWriteTransaction() throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        boolean previous = ReplicaRouting.enterReplicaRead();
+        try {
+            assertSame(primaryConnection, router.getConnection());
+        } finally {
+            ReplicaRouting.exitReplicaRead(previous);
+        }
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_shouldUseReplicaInsideReadOnlyTransaction() throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(firstConnection, router.getConnection());
+    }
+
+    @Test
+    void userCacheLoader_shouldNotBeRoutedToReplicas() throws NoSuchMethodException {
+        assertTrue(UserDao.class.getMethod("findUserById", UUID.class).isAnnotationPresent(ReplicaRead.class));
+        assertFalse(UserDao.class.getMethod("loadUserById", UUID.class).isAnnotationPresent(ReplicaRead.class));
+    }
+}
@@ -0,0 +1,75 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.datasource.ReplicaRouter;
+import com.lamukhin.WebRiseTest.datasource.ReplicaRoutingAspect;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingAspectTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaRouter router = new ReplicaRouter(primary, List.of(replica), ReplicaRouter.Selection.ROUND_ROBIN);
+    private final ReplicaRoutingAspect aspect = new ReplicaRoutingAspect(Duration.ofMinutes(1), 100);
+
+    ReplicaRoutingAspectTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @Test
+    void batchWrite_shouldSendNextReadsOfEveryWriterToPrimary() throws Throwable {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        aspect.rememberWrite(joinPoint(List.of(subscription(first), subscription(second))));
+
+        assertSame(primaryConnection, readFor(first));
+        assertSame(primaryConnection, readFor(second));
+        assertSame(replicaConnection, readFor(other));
+    }
+
+    @Test
+    void singleWrite_shouldSendNextReadOfWriterToPrimary() throws Throwable {
+        UUID writer = UUID.randomUUID();
+
+        aspect.rememberWrite(joinPoint(subscription(writer)));
+
+        assertSame(primaryConnection, readFor(writer));
+    }
+
+    private Object readFor(UUID userId) throws Throwable {
+        ProceedingJoinPoint read = mock(ProceedingJoinPoint.class);
+        when(read.getArgs()).thenReturn(new Object[]{userId});
+        when(read.proceed()).thenAnswer(invocation -> router.getConnection());
+        return aspect.routeRead(read);
+    }
+
+    private static JoinPoint joinPoint(Object... args) {
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(args);
+        return joinPoint;
+    }
+
+    private static FullSubscriptionInfoDto subscription(UUID userId) {
+        return new FullSubscriptionInfoDto(null, userId, "Netflix", NOW, NOW.plusDays(30));
+    }
+}
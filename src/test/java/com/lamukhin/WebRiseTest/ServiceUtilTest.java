@@ -0,0 +1,47 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.exception.IncorrectIdException;
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceUtilTest {
+
+    @Test
+    void parseUuidOrNull_shouldMatchUuidFromString() {
+        for (int i = 0; i < 1000; i++) {
+            UUID expected = UUID.randomUUID();
+            assertEquals(expected, ServiceUtil.parseUuidOrNull(expected.toString()));
+            assertEquals(expected, ServiceUtil.parseUuidOrNull(expected.toString().toUpperCase()));
+        }
+        assertEquals(new UUID(-1L, -1L), ServiceUtil.parseUuidOrNull("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "not-a-uuid",
+            "8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4f5",
+            "8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4f500",
+            "8c6f3f4a1f0e-4a52-9a53-6a1c2d3e4f50x",
+            "8c6f3f4g-1f0e-4a52-9a53-6a1c2d3e4f50",
+            "8c6f3f4a-1f0e-4a52-9a53-6a1c2d3e4f5١",
+            "1-1-1-1-1"
+    })
+    void parseUuidOrNull_shouldRejectMalformedIds(String id) {
+        assertNull(ServiceUtil.parseUuidOrNull(id));
+        assertThrows(IncorrectIdException.class, () -> ServiceUtil.convertStringToUuid(id));
+    }
+
+    @Test
+    void incorrectIdException_shouldNotCaptureStackTrace() {
+        IncorrectIdException ex = assertThrows(IncorrectIdException.class, () -> ServiceUtil.convertStringToUuid("garbage"));
+        assertEquals(0, ex.getStackTrace().length);
+    }
+}
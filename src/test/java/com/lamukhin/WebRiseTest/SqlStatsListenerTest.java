@@ -0,0 +1,103 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.controller.SqlStatsEndpoint;
+import com.lamukhin.WebRiseTest.dao.SqlStatsListener;
+import com.lamukhin.WebRiseTest.dto.SqlStatementStats;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.lamukhin.generated.tables.Users.USERS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatsListenerTest {
+
+    private SqlStatsListener listener;
+    private DSLContext dsl;
+
+    @BeforeEach
+    void setUp() {
+        listener = new SqlStatsListener(Duration.ofHours(1), 2);
+        DSLContext plain = DSL.using(SQLDialect.POSTGRES);
+        Result<Record1<UUID>> users = plain.newResult(USERS.ID);
+        users.add(plain.newRecord(USERS.ID).values(UUID.randomUUID()));
+        users.add(plain.newRecord(USERS.ID).values(UUID.randomUUID()));
+        MockConnection connection = new MockConnection(ctx -> ctx.sql().startsWith("select")
+                ? new MockResult[]{new MockResult(users.size(), users)}
+                : new MockResult[]{new MockResult(1)});
+        dsl = DSL.using(new DefaultConfiguration()
+                .set(connection)
+                .set(SQLDialect.POSTGRES)
+                .set(new DefaultExecuteListenerProvider(listener)));
+    }
+
+    @Test
+    void listener_shouldAggregateByNormalizedStatement() {
+        dsl.select(USERS.ID).from(USERS).where(USERS.EMAIL.eq("ivan@mail.ru")).fetch();
+        dsl.select(USERS.ID).from(USERS).where(USERS.EMAIL.eq("petr@mail.ru")).fetch();
+        dsl.update(USERS).set(USERS.USER_NAME, "Ivan").where(USERS.ID.eq(UUID.randomUUID())).execute();
+
+        List<SqlStatementStats> stats = listener.snapshot();
+
+        assertEquals(2, stats.size());
+        SqlStatementStats select = stats.stream().filter(s -> s.sql().startsWith("select")).findFirst().orElseThrow();
+        assertEquals(2, select.executions());
+        assertEquals(4, select.rows());
+        assertFalse(select.sql().contains("mail.ru"));
+        SqlStatementStats update = stats.stream().filter(s -> s.sql().startsWith("update")).findFirst().orElseThrow();
+        assertEquals(1, update.executions());
+        assertEquals(1, update.rows());
+        assertTrue(update.maxMs() >= update.meanMs());
+    }
+
+    @Test
+    void listener_shouldFoldStatementsBeyondLimit() {
+        dsl.select(USERS.ID).from(USERS).fetch();
+        dsl.select(USERS.EMAIL).from(USERS).fetch();
+        dsl.select(USERS.USER_NAME).from(USERS).fetch();
+
+        assertEquals(3, listener.snapshot().size());
+        assertTrue(listener.snapshot().stream().anyMatch(s -> s.sql().equals("<other statements>")));
+    }
+
+    @Test
+    void reset_shouldClearStatistics() {
+        dsl.select(USERS.ID).from(USERS).fetch();
+
+        listener.reset();
+
+        assertTrue(listener.snapshot().isEmpty());
+    }
+
+    @Test
+    void maskEmails_shouldHideLocalPart() {
+        assertEquals("[iv***@mail.ru, 42]", SqlStatsListener.maskEmails("[ivan.petrov@mail.ru, 42]"));
+        assertEquals("no emails here", SqlStatsListener.maskEmails("no emails here"));
+    }
+
+    @Test
+    void endpoint_shouldLimitAndResetStatistics() {
+        SqlStatsEndpoint endpoint = new SqlStatsEndpoint(listener);
+        dsl.select(USERS.ID).from(USERS).fetch();
+        dsl.update(USERS).set(USERS.USER_NAME, "Ivan").where(USERS.ID.eq(UUID.randomUUID())).execute();
+
+        assertEquals(2, endpoint.sqlStats(null).size());
+        assertEquals(1, endpoint.sqlStats(1).size());
+
+        endpoint.reset();
+
+        assertTrue(endpoint.sqlStats(null).isEmpty());
+    }
+}
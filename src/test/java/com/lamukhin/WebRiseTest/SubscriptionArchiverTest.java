@@ -0,0 +1,84 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.SubscriptionArchiveDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.service.SubscriptionArchiver;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionArchiverTest {
+
+    private static final UUID USER = UUID.randomUUID();
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusYears(1);
+
+    @Mock
+    private SubscriptionArchiveDao subscriptionArchiveDao;
+
+    @Mock
+    private SubscriptionLeaderboard subscriptionLeaderboard;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private InvalidationPublisher invalidationPublisher;
+
+    private SubscriptionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new SubscriptionArchiver(subscriptionArchiveDao, subscriptionLeaderboard, userCache,
+                invalidationPublisher, Duration.ofDays(30), 2, Duration.ZERO, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void archiveExpired_shouldContinueFromLastArchivedRowUntilShortBatch() throws InterruptedException {
+        FullSubscriptionInfoDto first = expired(1, "Netflix");
+        FullSubscriptionInfoDto second = expired(2, "Netflix");
+        FullSubscriptionInfoDto third = expired(3, "Spotify");
+        when(subscriptionArchiveDao.archiveExpiredBatch(any(), isNull(), eq(2))).thenReturn(List.of(first, second));
+        when(subscriptionArchiveDao.archiveExpiredBatch(any(), eq(second), eq(2))).thenReturn(List.of(third));
+
+        assertEquals(3, archiver.archiveExpired());
+
+        verify(subscriptionArchiveDao, times(2)).archiveExpiredBatch(any(), any(), eq(2));
+        verify(subscriptionLeaderboard).change("Netflix", -2);
+        verify(subscriptionLeaderboard).change("Spotify", -1);
+        verify(userCache, times(3)).invalidate(USER);
+        verify(invalidationPublisher, times(2)).publishSubscriptionsChanged(USER, "Netflix", -1);
+        verify(invalidationPublisher).publishSubscriptionsChanged(USER, "Spotify", -1);
+    }
+
+    @Test
+    void archiveExpired_shouldUseRetentionAsCutoff() throws InterruptedException {
+        when(subscriptionArchiveDao.archiveExpiredBatch(any(), isNull(), eq(2))).thenReturn(List.of());
+
+        assertEquals(0, archiver.archiveExpired());
+
+        verify(subscriptionArchiveDao).archiveExpiredBatch(
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(29))), isNull(), eq(2));
+        verifyNoInteractions(subscriptionLeaderboard, userCache, invalidationPublisher);
+    }
+
+    private static FullSubscriptionInfoDto expired(int id, String serviceName) {
+        return new FullSubscriptionInfoDto(id, USER, serviceName, LONG_AGO, LONG_AGO.plusDays(id));
+    }
+}
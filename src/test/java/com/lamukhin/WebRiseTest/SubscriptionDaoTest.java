@@ -0,0 +1,93 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SubscriptionDaoTest {
+
+    @Autowired
+    private SubscriptionDao subscriptionDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private SubscriptionLeaderboard subscriptionLeaderboard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private FullUserInfoDto user;
+    private String serviceName;
+
+    @BeforeEach
+    void createUser() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, user_name, email, registration_time, subscription_amount) "
+                + "VALUES (?, 'dao', ?, now(), 0)", id, "dao-" + id + "@example.com");
+        user = userDao.loadUserById(id);
+        serviceName = "service-" + id;
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userDao.deleteUserById(user.id());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUser_shouldDecrementLeaderboardOnlyAfterCommit() {
+        LocalDateTime now = LocalDateTime.now();
+        subscriptionDao.upsertSubscription(new FullSubscriptionInfoDto(null, user.id(), serviceName, now, now.plusDays(30)));
+        FullSubscriptionInfoDto saved = subscriptionDao.getSubscriptionByUserIdAndName(user.id(), serviceName);
+        assertEquals(1, subscribers());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, subscriptionDao.deleteSubscriptionByIdAndUser(user, saved.id()));
+            assertEquals(1, subscribers());
+        });
+
+        assertEquals(0, subscribers());
+    }
+
+    @Test
+    void deleteSubscriptionByIdAndUser_whenRolledBack_shouldKeepLeaderboard() {
+        LocalDateTime now = LocalDateTime.now();
+        subscriptionDao.upsertSubscription(new FullSubscriptionInfoDto(null, user.id(), serviceName, now, now.plusDays(30)));
+        FullSubscriptionInfoDto saved = subscriptionDao.getSubscriptionByUserIdAndName(user.id(), serviceName);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            subscriptionDao.deleteSubscriptionByIdAndUser(user, saved.id());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, subscribers());
+    }
+
+    private int subscribers() {
+        return subscriptionLeaderboard.getTop(subscriptionLeaderboard.getMaxSize()).stream()
+                .filter(sub -> sub.serviceName().equals(serviceName))
+                .mapToInt(TopSubscription::amountOfSubscribers)
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,183 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
+import com.lamukhin.WebRiseTest.service.SubscriptionGroupCommitter;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SubscriptionGroupCommitterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private final SubscriptionDao subscriptionDao = mock(SubscriptionDao.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private SubscriptionGroupCommitter committer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        committer.stop();
+    }
+
+    @Test
+    void upsert_shouldCoalesceConcurrentCallersIntoOneBatch() throws Exception {
+        runTransactionCallbacks();
+        when(subscriptionDao.upsertSubscriptions(anyList())).thenAnswer(invocation -> {
+            List<FullSubscriptionInfoDto> batch = invocation.getArgument(0);
+            return batch.stream().map(sub -> created(sub.endTime())).toList();
+        });
+        start(8, Duration.ofSeconds(1));
+
+        List<Future<SubscriptionUpsertResult>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            FullSubscriptionInfoDto subscription = subscription(UUID.randomUUID(), "service", i);
+            results.add(callers.submit(() -> committer.upsert(subscription)));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(created(NOW.plusDays(i)), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        verify(subscriptionDao).upsertSubscriptions(argThat(batch -> batch.size() == 8));
+        verify(subscriptionDao, never()).upsertSubscription(any());
+    }
+
+    @Test
+    void upsert_shouldPutSameUserAndServiceIntoSeparateRounds() throws Exception {
+        runTransactionCallbacks();
+        List<Integer> roundSizes = new CopyOnWriteArrayList<>();
+        when(subscriptionDao.upsertSubscriptions(anyList())).thenAnswer(invocation -> {
+            List<FullSubscriptionInfoDto> batch = invocation.getArgument(0);
+            roundSizes.add(batch.size());
+            return batch.stream().map(sub -> created(sub.endTime())).toList();
+        });
+        start(3, Duration.ofSeconds(1));
+        UUID user = UUID.randomUUID();
+
+        List<Future<SubscriptionUpsertResult>> results = List.of(
+                callers.submit(() -> committer.upsert(subscription(user, "Netflix", 1))),
+                callers.submit(() -> committer.upsert(subscription(user, "Netflix", 2))),
+                callers.submit(() -> committer.upsert(subscription(user, "Spotify", 3))));
+        for (Future<SubscriptionUpsertResult> result : results) {
+            assertEquals(SubscriptionUpsertStatus.CREATED, result.get(5, TimeUnit.SECONDS).status());
+        }
+
+        assertEquals(List.of(2, 1), roundSizes);
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void upsert_shouldRetryOneByOneWhenBatchFails() throws Exception {
+        runTransactionCallbacks();
+        FullSubscriptionInfoDto failing = subscription(UUID.randomUUID(), "Netflix", 1);
+        FullSubscriptionInfoDto passing = subscription(UUID.randomUUID(), "Netflix", 2);
+        when(subscriptionDao.upsertSubscriptions(anyList())).thenThrow(new DataAccessException("deadlock detected"));
+        when(subscriptionDao.upsertSubscription(failing)).thenThrow(new DataAccessException("broken row"));
+        when(subscriptionDao.upsertSubscription(passing)).thenReturn(created(passing.endTime()));
+        start(2, Duration.ofSeconds(1));
+
+        Future<SubscriptionUpsertResult> failed = callers.submit(() -> committer.upsert(failing));
+        Future<SubscriptionUpsertResult> passed = callers.submit(() -> committer.upsert(passing));
+
+        assertEquals(created(passing.endTime()), passed.get(5, TimeUnit.SECONDS));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataAccessException.class, ex.getCause());
+    }
+
+    @Test
+    void upsert_shouldFallBackToDirectUpsertWhenWorkerIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        FullSubscriptionInfoDto stuck = subscription(UUID.randomUUID(), "Netflix", 1);
+        FullSubscriptionInfoDto queued = subscription(UUID.randomUUID(), "Spotify", 2);
+        when(subscriptionDao.upsertSubscription(queued)).thenReturn(created(queued.endTime()));
+        committer = new SubscriptionGroupCommitter(subscriptionDao, transactionTemplate, 100, 1, Duration.ZERO,
+                Duration.ofMillis(200));
+        committer.start();
+
+        callers.submit(() -> committer.upsert(stuck));
+        verify(transactionTemplate, timeout(5000)).execute(any());
+        try {
+            assertEquals(created(queued.endTime()), committer.upsert(queued));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stop_shouldAnswerUpsertsQueuedBehindStuckBatch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            awaitUninterruptibly(release);
+            throw new DataAccessException("connection closed");
+        });
+        FullSubscriptionInfoDto inFlight = subscription(UUID.randomUUID(), "Netflix", 1);
+        FullSubscriptionInfoDto queued = subscription(UUID.randomUUID(), "Spotify", 2);
+        when(subscriptionDao.upsertSubscription(inFlight)).thenReturn(created(inFlight.endTime()));
+        when(subscriptionDao.upsertSubscription(queued)).thenReturn(created(queued.endTime()));
+        committer = new SubscriptionGroupCommitter(subscriptionDao, transactionTemplate, 100, 1, Duration.ZERO,
+                Duration.ofMillis(300));
+        committer.start();
+
+        Future<SubscriptionUpsertResult> first = callers.submit(() -> committer.upsert(inFlight));
+        verify(transactionTemplate, timeout(5000)).execute(any());
+        Future<SubscriptionUpsertResult> second = callers.submit(() -> committer.upsert(queued));
+        committer.stop();
+
+        assertEquals(created(queued.endTime()), second.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals(created(inFlight.endTime()), first.get(5, TimeUnit.SECONDS));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    private void start(int maxBatch, Duration window) {
+        committer = new SubscriptionGroupCommitter(subscriptionDao, transactionTemplate, 100, maxBatch, window,
+                Duration.ofSeconds(5));
+        committer.start();
+    }
+
+    private static FullSubscriptionInfoDto subscription(UUID user, String serviceName, int days) {
+        return new FullSubscriptionInfoDto(null, user, serviceName, NOW, NOW.plusDays(days));
+    }
+
+    private static SubscriptionUpsertResult created(LocalDateTime activeUntil) {
+        return new SubscriptionUpsertResult(SubscriptionUpsertStatus.CREATED, activeUntil);
+    }
+}
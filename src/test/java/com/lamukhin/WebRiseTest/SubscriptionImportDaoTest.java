@@ -0,0 +1,70 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dao.SubscriptionImportDao;
+import com.lamukhin.WebRiseTest.dao.UserDao;
+import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
+import com.lamukhin.WebRiseTest.dto.ImportReject;
+import com.lamukhin.WebRiseTest.dto.ImportedSubscription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SubscriptionImportDaoTest {
+
+    @Autowired
+    private SubscriptionImportDao subscriptionImportDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UUID userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, user_name, email, registration_time, subscription_amount) "
+                + "VALUES (?, 'import', ?, now(), 0)", userId, "import-" + userId + "@example.com");
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userDao.deleteUserById(userId);
+    }
+
+    @Test
+    void mergeStaging_whenUserIsDeletedAfterStaging_shouldRejectItsLinesAndMergeTheRest() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID deletedUser = UUID.randomUUID();
+        List<ImportReject> rejects = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            subscriptionImportDao.createStagingTable();
+            subscriptionImportDao.copyToStaging(List.of(
+                    new ImportedSubscription(1, new FullSubscriptionInfoDto(null, userId, "Netflix", now, now.plusDays(30))),
+                    new ImportedSubscription(2, new FullSubscriptionInfoDto(null, deletedUser, "Netflix", now, now.plusDays(30)))));
+            subscriptionImportDao.mergeStaging(rejects::add);
+        });
+
+        assertEquals(List.of(new ImportReject(2, "User is not found")), rejects);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM subscriptions WHERE user_id = ?", Integer.class, userId));
+    }
+}
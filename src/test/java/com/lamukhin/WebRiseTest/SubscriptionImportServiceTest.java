@@ -0,0 +1,118 @@
+package com.lamukhin.WebRiseTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lamukhin.WebRiseTest.cache.InvalidationPublisher;
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dao.SubscriptionImportDao;
+import com.lamukhin.WebRiseTest.dto.ImportReject;
+import com.lamukhin.WebRiseTest.dto.ImportReport;
+import com.lamukhin.WebRiseTest.dto.ImportedSubscription;
+import com.lamukhin.WebRiseTest.service.SubscriptionImportService;
+import com.lamukhin.WebRiseTest.service.SubscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionImportServiceTest {
+
+    @Mock
+    private SubscriptionImportDao subscriptionImportDao;
+
+    @Mock
+    private SubscriptionService subscriptionService;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private InvalidationPublisher invalidationPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SubscriptionImportService importService;
+    private final UUID knownUser = UUID.randomUUID();
+    private final UUID unknownUser = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        importService = new SubscriptionImportService(subscriptionImportDao, subscriptionService, userCache,
+                invalidationPublisher, transactionTemplate, objectMapper, 2, 10);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void importSubscriptions_shouldStageValidLinesAndReportRejects() {
+        String ndjson = String.join("\n",
+                line(knownUser, "Netflix"),
+                "{not json",
+                line(unknownUser, "Spotify"),
+                "",
+                "{\"userId\":\"" + knownUser + "\",\"serviceName\":\" \"}",
+                line(knownUser, "Okko"));
+        when(subscriptionImportDao.findExistingUserIds(any())).thenReturn(Set.of(knownUser));
+        when(subscriptionImportDao.copyToStaging(anyList())).thenAnswer(invocation -> (long) invocation.<List<?>>getArgument(0).size());
+        when(subscriptionImportDao.mergeStaging(any())).thenReturn(0L);
+
+        ImportReport report = importService.importSubscriptions(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, report.accepted());
+        assertEquals(3, report.rejected());
+        assertEquals(List.of(
+                new ImportReject(2, "Malformed JSON"),
+                new ImportReject(3, "User is not found"),
+                new ImportReject(5, "Service name is missing")
+        ), report.rejects());
+        verify(subscriptionImportDao).createStagingTable();
+        verify(subscriptionImportDao).recountSubscriptionAmounts();
+        verify(userCache).invalidateAll();
+        verify(subscriptionService).rebuildLeaderboard();
+        verify(invalidationPublisher).publishFlushAll();
+    }
+
+    @Test
+    void importSubscriptions_shouldCountConflictsReportedByMerge() {
+        String ndjson = line(knownUser, "Netflix") + "\n" + line(knownUser, "Netflix");
+        when(subscriptionImportDao.findExistingUserIds(any())).thenReturn(Set.of(knownUser));
+        when(subscriptionImportDao.copyToStaging(anyList())).thenReturn(2L);
+        when(subscriptionImportDao.mergeStaging(any())).thenAnswer(invocation -> {
+            invocation.<Consumer<ImportReject>>getArgument(0).accept(new ImportReject(2, "Duplicate subscription in import"));
+            return 1L;
+        });
+
+        ImportReport report = importService.importSubscriptions(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, report.accepted());
+        assertEquals(1, report.rejected());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ImportedSubscription>> captor = ArgumentCaptor.forClass(List.class);
+        verify(subscriptionImportDao).copyToStaging(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    private String line(UUID userId, String serviceName) {
+        return "{\"userId\":\"" + userId + "\",\"serviceName\":\"" + serviceName
+                + "\",\"startTime\":\"2025-05-21T10:00:00\",\"endTime\":\"2025-06-21T10:00:00\"}";
+    }
+}
@@ -0,0 +1,118 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionLeaderboardTest {
+
+    private SubscriptionLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new SubscriptionLeaderboard(3, Duration.ZERO);
+        leaderboard.rebuild(Map.of("Netflix", 10, "Spotify", 8, "Yandex", 5, "Okko", 4));
+    }
+
+    @Test
+    void rebuild_shouldKeepOnlyMaxSizeOrderedByAmount() {
+        List<TopSubscription> top = leaderboard.getTop(10);
+        assertEquals(List.of(
+                new TopSubscription("Netflix", 10),
+                new TopSubscription("Spotify", 8),
+                new TopSubscription("Yandex", 5)
+        ), top);
+    }
+
+    @Test
+    void getTop_shouldRespectLimit() {
+        assertEquals(List.of(new TopSubscription("Netflix", 10)), leaderboard.getTop(1));
+        assertTrue(leaderboard.getTop(0).isEmpty());
+    }
+
+    @Test
+    void increment_whenServiceOutsideTopOvertakes_shouldEnterTop() {
+        leaderboard.increment("Okko");
+        leaderboard.increment("Okko");
+        assertEquals(new TopSubscription("Okko", 6), leaderboard.getTop(3).get(2));
+    }
+
+    @Test
+    void increment_whenServiceIsNew_shouldAppearWhenTopIsNotFull() {
+        SubscriptionLeaderboard empty = new SubscriptionLeaderboard(3, Duration.ZERO);
+        empty.increment("Netflix");
+        assertEquals(List.of(new TopSubscription("Netflix", 1)), empty.getTop(3));
+    }
+
+    @Test
+    void decrement_whenTopMemberFallsBehind_shouldBeReplacedFromOutside() {
+        leaderboard.decrement("Yandex");
+        leaderboard.decrement("Yandex");
+        assertEquals(List.of(
+                new TopSubscription("Netflix", 10),
+                new TopSubscription("Spotify", 8),
+                new TopSubscription("Okko", 4)
+        ), leaderboard.getTop(3));
+    }
+
+    @Test
+    void decrement_whenAmountReachesZero_shouldDropServiceFromTop() {
+        SubscriptionLeaderboard small = new SubscriptionLeaderboard(3, Duration.ZERO);
+        small.increment("Netflix");
+        small.decrement("Netflix");
+        small.decrement("Netflix");
+        assertTrue(small.getTop(3).isEmpty());
+    }
+
+    @Test
+    void concurrentUpdates_shouldNotLoseIncrements() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> leaderboard.increment("Okko"));
+            executor.submit(() -> leaderboard.increment("Netflix"));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(List.of(
+                new TopSubscription("Netflix", 1010),
+                new TopSubscription("Okko", 1004),
+                new TopSubscription("Spotify", 8)
+        ), leaderboard.getTop(3));
+    }
+
+    @Test
+    void concurrentReadsAndWrites_shouldConvergeToCounters() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> leaderboard.increment("Yandex"));
+            executor.submit(() -> leaderboard.getTop(3));
+            executor.submit(() -> leaderboard.decrement("Netflix"));
+            executor.submit(() -> leaderboard.getTop(3));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(List.of(
+                new TopSubscription("Yandex", 1005),
+                new TopSubscription("Spotify", 8),
+                new TopSubscription("Okko", 4)
+        ), leaderboard.getTop(3));
+    }
+
+    @Test
+    void getTop_shouldServeSnapshotUntilRefreshIntervalPasses() {
+        SubscriptionLeaderboard throttled = new SubscriptionLeaderboard(3, Duration.ofHours(1));
+        throttled.rebuild(Map.of("Netflix", 10));
+        throttled.increment("Netflix");
+        assertEquals(List.of(new TopSubscription("Netflix", 10)), throttled.getTop(3));
+    }
+}
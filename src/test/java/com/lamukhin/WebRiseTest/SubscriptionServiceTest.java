@@ -4,22 +4,32 @@ import com.lamukhin.WebRiseTest.dao.SubscriptionDao;
 import com.lamukhin.WebRiseTest.dto.EntrySubscriptionDto;
 import com.lamukhin.WebRiseTest.dto.FullSubscriptionInfoDto;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertResult;
+import com.lamukhin.WebRiseTest.dto.SubscriptionUpsertStatus;
 import com.lamukhin.WebRiseTest.dto.TopSubscription;
+import com.lamukhin.WebRiseTest.exception.IncorrectCursorException;
 import com.lamukhin.WebRiseTest.exception.SubscriptionException;
 import com.lamukhin.WebRiseTest.exception.UserNotFoundException;
+import com.lamukhin.WebRiseTest.service.SubscriptionGroupCommitter;
+import com.lamukhin.WebRiseTest.service.SubscriptionLeaderboard;
 import com.lamukhin.WebRiseTest.service.SubscriptionService;
 import com.lamukhin.WebRiseTest.service.UserService;
+import com.lamukhin.WebRiseTest.util.PageCursor;
 import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import org.jooq.exception.DataAccessException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +46,12 @@ class SubscriptionServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private SubscriptionLeaderboard subscriptionLeaderboard;
+
+    @Mock
+    private ObjectProvider<SubscriptionGroupCommitter> subscriptionGroupCommitter;
+
     @InjectMocks
     private SubscriptionService subscriptionService;
 
@@ -69,12 +85,12 @@ class SubscriptionServiceTest {
     void addSubscriptionByUserId_whenUserNotFound_shouldThrowUserNotFoundException() {
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
-            when(userService.getUserById(testUserIdString)).thenReturn(null);
+            when(subscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                    .thenReturn(new SubscriptionUpsertResult(SubscriptionUpsertStatus.USER_NOT_FOUND, null));
             assertThrows(UserNotFoundException.class, () -> {
                 subscriptionService.addSubscriptionByUserId(testUserIdString, entrySubscriptionDto);
             });
-            verify(subscriptionDao, never()).getSubscriptionByUserIdAndName(any(), any());
-            verify(subscriptionDao, never()).addNewSubscriptionByUser(any(), any());
+            verifyNoInteractions(userService);
         }
     }
 
@@ -84,18 +100,13 @@ class SubscriptionServiceTest {
              MockedStatic<LocalDateTime> mockedLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(MOCKED_NOW);
-            when(userService.getUserById(testUserIdString)).thenReturn(testUserInfoDto);
-            when(subscriptionDao.getSubscriptionByUserIdAndName(testUserUuid, entrySubscriptionDto.serviceName())).thenReturn(null);
-            when(subscriptionDao.addNewSubscriptionByUser(eq(testUserInfoDto), any(FullSubscriptionInfoDto.class))).thenReturn(1);
+            when(subscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                    .thenReturn(new SubscriptionUpsertResult(SubscriptionUpsertStatus.CREATED, newSubscriptionToSave.endTime()));
             int result = subscriptionService.addSubscriptionByUserId(testUserIdString, entrySubscriptionDto);
             assertEquals(1, result);
             ArgumentCaptor<FullSubscriptionInfoDto> captor = ArgumentCaptor.forClass(FullSubscriptionInfoDto.class);
-            verify(subscriptionDao).addNewSubscriptionByUser(eq(testUserInfoDto), captor.capture());
-            FullSubscriptionInfoDto capturedSub = captor.getValue();
-            assertEquals(testUserUuid, capturedSub.userId());
-            assertEquals(entrySubscriptionDto.serviceName(), capturedSub.serviceName());
-            assertEquals(MOCKED_NOW, capturedSub.startTime());
-            assertEquals(MOCKED_NOW.plusDays(entrySubscriptionDto.subscriptionDurationDays()), capturedSub.endTime());
+            verify(subscriptionDao).upsertSubscription(captor.capture());
+            assertEquals(newSubscriptionToSave, captor.getValue());
         }
     }
 
@@ -106,40 +117,46 @@ class SubscriptionServiceTest {
 
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(MOCKED_NOW);
-            when(userService.getUserById(testUserIdString)).thenReturn(testUserInfoDto);
-            FullSubscriptionInfoDto activeSub = new FullSubscriptionInfoDto(1, testUserUuid, entrySubscriptionDto.serviceName(),
-                    MOCKED_NOW.minusDays(10), MOCKED_NOW.plusDays(5));
-            when(subscriptionDao.getSubscriptionByUserIdAndName(testUserUuid, entrySubscriptionDto.serviceName())).thenReturn(activeSub);
+            LocalDateTime activeUntil = MOCKED_NOW.plusDays(5);
+            when(subscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                    .thenReturn(new SubscriptionUpsertResult(SubscriptionUpsertStatus.STILL_ACTIVE, activeUntil));
             SubscriptionException ex = assertThrows(SubscriptionException.class, () -> {
                 subscriptionService.addSubscriptionByUserId(testUserIdString, entrySubscriptionDto);
             });
-            assertEquals("Subscription is not ended yet! It ends at " + activeSub.endTime(), ex.getMessage());
-            verify(subscriptionDao, never()).addNewSubscriptionByUser(any(), any());
-            verify(subscriptionDao, never()).updateSubscriptionByNameAndUserId(any(), any());
+            assertEquals("Subscription is not ended yet! It ends at " + activeUntil, ex.getMessage());
         }
     }
 
     @Test
-    void addSubscriptionByUserId_whenExistingSubscriptionHasEnded_shouldUpdateSubscription() {
+    void addSubscriptionByUserId_whenExistingSubscriptionHasEnded_shouldRenewSubscription() {
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class);
              MockedStatic<LocalDateTime> mockedLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(MOCKED_NOW);
-            when(userService.getUserById(testUserIdString)).thenReturn(testUserInfoDto);
-            FullSubscriptionInfoDto endedSub = new FullSubscriptionInfoDto(1, testUserUuid, entrySubscriptionDto.serviceName(),
-                    MOCKED_NOW.minusDays(40), MOCKED_NOW.minusDays(10));
-            when(subscriptionDao.getSubscriptionByUserIdAndName(testUserUuid, entrySubscriptionDto.serviceName())).thenReturn(endedSub);
-            when(subscriptionDao.updateSubscriptionByNameAndUserId(eq(testUserUuid), any(FullSubscriptionInfoDto.class))).thenReturn(1);
+            when(subscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class)))
+                    .thenReturn(new SubscriptionUpsertResult(SubscriptionUpsertStatus.RENEWED, newSubscriptionToSave.endTime()));
             int result = subscriptionService.addSubscriptionByUserId(testUserIdString, entrySubscriptionDto);
             assertEquals(1, result);
             ArgumentCaptor<FullSubscriptionInfoDto> captor = ArgumentCaptor.forClass(FullSubscriptionInfoDto.class);
-            verify(subscriptionDao).updateSubscriptionByNameAndUserId(eq(testUserUuid), captor.capture());
+            verify(subscriptionDao, times(1)).upsertSubscription(captor.capture());
             FullSubscriptionInfoDto capturedSub = captor.getValue();
             assertEquals(testUserUuid, capturedSub.userId());
             assertEquals(entrySubscriptionDto.serviceName(), capturedSub.serviceName());
             assertEquals(MOCKED_NOW, capturedSub.startTime());
             assertEquals(MOCKED_NOW.plusDays(entrySubscriptionDto.subscriptionDurationDays()), capturedSub.endTime());
-            verify(subscriptionDao, never()).addNewSubscriptionByUser(any(), any());
+        }
+    }
+
+    @Test
+    void addSubscriptionByUserId_whenDaoFails_shouldThrowRuntimeException() {
+        try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
+            mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
+            DataAccessException daoException = new DataAccessException("DB upsert error");
+            when(subscriptionDao.upsertSubscription(any(FullSubscriptionInfoDto.class))).thenThrow(daoException);
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> {
+                subscriptionService.addSubscriptionByUserId(testUserIdString, entrySubscriptionDto);
+            });
+            assertEquals(daoException, ex.getCause());
         }
     }
 
@@ -190,22 +207,70 @@ class SubscriptionServiceTest {
     }
 
     @Test
-    void getTopThreeSubscription_shouldReturnDataFromDao() {
+    void getTopSubscriptions_shouldReturnDataFromLeaderboard() {
         List<TopSubscription> topSubs = List.of(new TopSubscription("Netflix", 100), new TopSubscription("Spotify", 90));
-        when(subscriptionDao.getTopThreeSubscription()).thenReturn(topSubs);
-        Collection<TopSubscription> result = subscriptionService.getTopThreeSubscription();
+        when(subscriptionLeaderboard.getTop(3)).thenReturn(topSubs);
+        Collection<TopSubscription> result = subscriptionService.getTopSubscriptions(3);
         assertNotNull(result);
         assertEquals(2, result.size());
         assertTrue(result.containsAll(topSubs));
-        verify(subscriptionDao).getTopThreeSubscription();
+        verify(subscriptionLeaderboard).getTop(3);
+        verifyNoInteractions(subscriptionDao);
     }
 
     @Test
-    void getTopThreeSubscription_whenDaoReturnsEmpty_shouldReturnEmpty() {
-        when(subscriptionDao.getTopThreeSubscription()).thenReturn(Collections.emptyList());
-        Collection<TopSubscription> result = subscriptionService.getTopThreeSubscription();
+    void getTopSubscriptions_whenLeaderboardIsEmpty_shouldReturnEmpty() {
+        when(subscriptionLeaderboard.getTop(3)).thenReturn(Collections.emptyList());
+        Collection<TopSubscription> result = subscriptionService.getTopSubscriptions(3);
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(subscriptionDao).getTopThreeSubscription();
+        verify(subscriptionLeaderboard).getTop(3);
+    }
+
+    @Test
+    void rebuildLeaderboard_shouldLoadCountersFromDao() {
+        Map<String, Integer> counters = Map.of("Netflix", 100, "Spotify", 90);
+        when(subscriptionDao.getSubscribersByService()).thenReturn(counters);
+        subscriptionService.rebuildLeaderboard();
+        verify(subscriptionLeaderboard).rebuild(counters);
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_whenMoreRowsExist_shouldReturnCursorToLastItem() {
+        FullSubscriptionInfoDto second = new FullSubscriptionInfoDto(2, testUserUuid, "Spotify",
+                MOCKED_NOW, MOCKED_NOW.plusDays(30));
+        FullSubscriptionInfoDto third = new FullSubscriptionInfoDto(3, testUserUuid, "YouTube",
+                MOCKED_NOW, MOCKED_NOW.plusDays(30));
+        try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
+            mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
+            when(subscriptionDao.getSubscriptionsPageByUserId(testUserUuid, null, 3))
+                    .thenReturn(List.of(existingSubscription, second, third));
+            PageDto<FullSubscriptionInfoDto> page = subscriptionService.getSubscriptionsPageByUserId(testUserIdString, null, 2);
+            assertEquals(List.of(existingSubscription, second), List.copyOf(page.items()));
+            assertEquals(2, PageCursor.decodeSubscriptionCursor(page.nextCursor()));
+        }
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_whenLastPage_shouldReturnNullCursor() {
+        String cursor = PageCursor.encodeSubscriptionCursor(1);
+        try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
+            mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
+            when(subscriptionDao.getSubscriptionsPageByUserId(testUserUuid, 1, 3))
+                    .thenReturn(List.of(existingSubscription));
+            PageDto<FullSubscriptionInfoDto> page = subscriptionService.getSubscriptionsPageByUserId(testUserIdString, cursor, 2);
+            assertEquals(1, page.items().size());
+            assertNull(page.nextCursor());
+        }
+    }
+
+    @Test
+    void getSubscriptionsPageByUserId_whenCursorIsBroken_shouldThrowIncorrectCursorException() {
+        try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
+            mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUserIdString)).thenReturn(testUserUuid);
+            assertThrows(IncorrectCursorException.class,
+                    () -> subscriptionService.getSubscriptionsPageByUserId(testUserIdString, "not-a-cursor", 2));
+            verifyNoInteractions(subscriptionDao);
+        }
     }
 }
@@ -0,0 +1,98 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import com.lamukhin.WebRiseTest.util.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final Comparator<UUID> UNSIGNED_BYTE_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Test
+    void nextId_shouldBeVersion7WithRfcVariantAndClockTimestamp() {
+        long now = 1_747_821_600_000L;
+        UUID id = new TimeOrderedIdGenerator(() -> now).nextId();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(now, TimeOrderedIdGenerator.timestampMillis(id));
+    }
+
+    @Test
+    void nextId_withinSameMillisecond_shouldStrictlyIncrease() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_000L);
+        UUID previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.nextId();
+            assertTrue(UNSIGNED_BYTE_ORDER.compare(previous, next) < 0);
+            assertEquals(7, next.version());
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_whenClockGoesBack_shouldStayMonotonic() {
+        AtomicLong clock = new AtomicLong(5_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+        UUID beforeStep = generator.nextId();
+        clock.set(4_000L);
+        UUID afterStep = generator.nextId();
+
+        assertTrue(UNSIGNED_BYTE_ORDER.compare(beforeStep, afterStep) < 0);
+        assertEquals(5_000L, TimeOrderedIdGenerator.timestampMillis(afterStep));
+    }
+
+    @Test
+    void nextId_fromManyThreads_shouldBeUniqueAndOrderedPerThread() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<UUID[]>> results = executor.invokeAll(Collections.nCopies(threads, (Callable<UUID[]>) () -> {
+                UUID[] ids = new UUID[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+            Set<UUID> all = new HashSet<>();
+            for (Future<UUID[]> result : results) {
+                UUID[] ids = result.get();
+                UUID[] sorted = ids.clone();
+                Arrays.sort(sorted, UNSIGNED_BYTE_ORDER);
+                assertArrayEquals(sorted, ids);
+                all.addAll(Arrays.asList(ids));
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void convertStringToUuid_shouldAcceptVersion4AndVersion7() {
+        UUID v7 = new TimeOrderedIdGenerator().nextId();
+        UUID v4 = UUID.randomUUID();
+
+        assertEquals(v7, ServiceUtil.convertStringToUuid(v7.toString()));
+        assertEquals(v4, ServiceUtil.convertStringToUuid(v4.toString()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.lamukhin.WebRiseTest;
+
+import com.lamukhin.WebRiseTest.cache.UserCache;
+import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private UUID userId;
+    private FullUserInfoDto user;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        user = new FullUserInfoDto(userId, "TestUser", "test@example.com", LocalDateTime.now(), 0);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_whenDisabled_shouldAlwaysCallLoader() {
+        UserCache cache = new UserCache(false, 100, Duration.ofMinutes(5));
+        cache.get(userId, this::load);
+        cache.get(userId, this::load);
+        assertFalse(cache.isEnabled());
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().requestCount());
+    }
+
+    @Test
+    void get_whenEnabled_shouldCountHitsAndMisses() {
+        UserCache cache = new UserCache(true, 100, Duration.ofMinutes(5));
+        cache.get(userId, this::load);
+        cache.get(userId, this::load);
+        cache.get(userId, this::load);
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldEvictAgainWhenTransactionCompletes() {
+        UserCache cache = new UserCache(true, 100, Duration.ofMinutes(5));
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAfterCommit(userId);
+        cache.get(userId, this::load);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        cache.get(userId, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bindTo_whenEnabled_shouldExposeCaffeineStats() {
+        UserCache cache = new UserCache(true, 100, Duration.ofMinutes(5));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get(userId, this::load);
+        cache.get(userId, this::load);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void bindTo_whenDisabled_shouldRegisterNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new UserCache(false, 100, Duration.ofMinutes(5)).bindTo(registry);
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    private FullUserInfoDto load(UUID id) {
+        loads.incrementAndGet();
+        return user;
+    }
+}
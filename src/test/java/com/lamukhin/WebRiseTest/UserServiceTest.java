@@ -1,11 +1,17 @@
 package com.lamukhin.WebRiseTest;
 
+import com.lamukhin.WebRiseTest.cache.EmailBloomFilter;
+import com.lamukhin.WebRiseTest.cache.UserCache;
 import com.lamukhin.WebRiseTest.dao.UserDao;
 import com.lamukhin.WebRiseTest.dto.EntryUserDto;
 import com.lamukhin.WebRiseTest.dto.FullUserInfoDto;
+import com.lamukhin.WebRiseTest.dto.PageDto;
 import com.lamukhin.WebRiseTest.dto.UpdateUserDataDto;
 import com.lamukhin.WebRiseTest.service.UserService;
+import com.lamukhin.WebRiseTest.util.IdGenerator;
+import com.lamukhin.WebRiseTest.util.PageCursor;
 import com.lamukhin.WebRiseTest.util.ServiceUtil;
+import com.lamukhin.WebRiseTest.util.TimeOrderedIdGenerator;
 import org.jooq.exception.DataAccessException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,11 +20,14 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DuplicateKeyException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +36,15 @@ class UserServiceTest {
     @Mock
     private UserDao userDao;
 
+    @Spy
+    private UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(5));
+
+    @Spy
+    private IdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
     @InjectMocks
     private UserService userService;
 
@@ -52,46 +70,43 @@ class UserServiceTest {
 
     @Test
     void saveNewUser_whenEmailIsNotDuplicate_shouldSaveUserAndReturnUuid() {
-        when(userDao.findUserByEmail(entryUserDto.email())).thenReturn(null);
-        doNothing().when(userDao).saveNewUser(any(FullUserInfoDto.class));
+        when(userDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(true);
         UUID resultUuid = userService.saveNewUser(entryUserDto);
         assertNotNull(resultUuid);
         ArgumentCaptor<FullUserInfoDto> userCaptor = ArgumentCaptor.forClass(FullUserInfoDto.class);
         verify(userDao, times(1)).saveNewUser(userCaptor.capture());
         FullUserInfoDto savedUser = userCaptor.getValue();
+        assertEquals(resultUuid, savedUser.id());
+        assertEquals(7, resultUuid.version());
         assertEquals(entryUserDto.userName(), savedUser.userName());
         assertEquals(entryUserDto.email(), savedUser.email());
-        assertNotNull(savedUser.id());
         assertNotNull(savedUser.registrationTime());
+        verify(emailBloomFilter).addWritten(entryUserDto.email(), false);
     }
 
     @Test
-    void saveNewUser_whenEmailIsDuplicate_shouldThrowDuplicateKeyException() {
-        when(userDao.findUserByEmail(entryUserDto.email())).thenReturn(existingUserInfoDto);
-        DuplicateKeyException exception = assertThrows(DuplicateKeyException.class, () -> {
-            userService.saveNewUser(entryUserDto);
-        });
-        assertEquals("User with email " + entryUserDto.email() + " already exists.", exception.getMessage());
-        verify(userDao, never()).saveNewUser(any(FullUserInfoDto.class));
+    void saveNewUser_whenFilterSaidMaybeAndInsertSucceeded_shouldReportFalsePositive() {
+        when(emailBloomFilter.mightContain(entryUserDto.email())).thenReturn(true);
+        when(userDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(true);
+        userService.saveNewUser(entryUserDto);
+        verify(emailBloomFilter).addWritten(entryUserDto.email(), true);
     }
 
     @Test
-    void saveNewUser_whenFindByEmailThrowsDataAccessException_shouldThrowRuntimeException() {
-        when(userDao.findUserByEmail(entryUserDto.email())).thenThrow(new DataAccessException("DB find error") {
-        });
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+    void saveNewUser_whenEmailIsDuplicate_shouldThrowDuplicateKeyException() {
+        when(userDao.saveNewUser(any(FullUserInfoDto.class))).thenReturn(false);
+        DuplicateKeyException exception = assertThrows(DuplicateKeyException.class, () -> {
             userService.saveNewUser(entryUserDto);
         });
-        assertTrue(exception.getCause() instanceof DataAccessException);
-        assertEquals("DB find error", exception.getCause().getMessage());
-        verify(userDao, never()).saveNewUser(any(FullUserInfoDto.class));
+        assertEquals("User with email " + entryUserDto.email() + " already exists.", exception.getMessage());
+        verify(userDao, times(1)).saveNewUser(any(FullUserInfoDto.class));
+        verify(emailBloomFilter, never()).addWritten(any(), anyBoolean());
     }
 
     @Test
     void saveNewUser_whenSaveNewUserThrowsDataAccessException_shouldThrowRuntimeException() {
-        when(userDao.findUserByEmail(entryUserDto.email())).thenReturn(null);
-        doThrow(new DataAccessException("DB save error") {
-        }).when(userDao).saveNewUser(any(FullUserInfoDto.class));
+        when(userDao.saveNewUser(any(FullUserInfoDto.class))).thenThrow(new DataAccessException("DB save error") {
+        });
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             userService.saveNewUser(entryUserDto);
         });
@@ -101,49 +116,28 @@ class UserServiceTest {
 
     @Test
     void updateUserById_whenNewEmailProvidedAndNotDuplicate_shouldUpdateUser() {
-        when(userDao.findUserByEmail(updateUserDataDto.email())).thenReturn(null);
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUuidString)).thenReturn(testUuid);
             when(userDao.updateUserById(testUuid, updateUserDataDto)).thenReturn(1);
             int result = userService.updateUserById(testUuidString, updateUserDataDto);
             assertEquals(1, result);
-            verify(userDao, times(1)).findUserByEmail(updateUserDataDto.email());
             verify(userDao, times(1)).updateUserById(testUuid, updateUserDataDto);
         }
     }
 
     @Test
     void updateUserById_whenNewEmailProvidedAndIsDuplicate_shouldThrowDuplicateKeyException() {
-        when(userDao.findUserByEmail(updateUserDataDto.email())).thenReturn(existingUserInfoDto);
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUuidString)).thenReturn(testUuid);
-            DuplicateKeyException exception = assertThrows(DuplicateKeyException.class, () -> {
+            when(userDao.updateUserById(testUuid, updateUserDataDto)).thenThrow(new DuplicateKeyException("unique_email"));
+            assertThrows(DuplicateKeyException.class, () -> {
                 userService.updateUserById(testUuidString, updateUserDataDto);
             });
-            assertEquals("User with email " + updateUserDataDto.email() + " already exists.", exception.getMessage());
-            verify(userDao, times(1)).findUserByEmail(updateUserDataDto.email());
-            verify(userDao, never()).updateUserById(any(UUID.class), any(UpdateUserDataDto.class));
-        }
-    }
-
-    @Test
-    void updateUserById_whenFindByEmailThrowsDataAccessException_shouldThrowRuntimeException() {
-        when(userDao.findUserByEmail(updateUserDataDto.email())).thenThrow(new DataAccessException("DB find error during update") {
-        });
-        try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
-            mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUuidString)).thenReturn(testUuid);
-            RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-                userService.updateUserById(testUuidString, updateUserDataDto);
-            });
-            assertTrue(exception.getCause() instanceof DataAccessException);
-            assertEquals("DB find error during update", exception.getCause().getMessage());
-            verify(userDao, never()).updateUserById(any(UUID.class), any(UpdateUserDataDto.class));
         }
     }
 
     @Test
     void updateUserById_whenUpdateUserThrowsDataAccessException_shouldThrowRuntimeException() {
-        when(userDao.findUserByEmail(updateUserDataDto.email())).thenReturn(null);
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testUuidString)).thenReturn(testUuid);
             when(userDao.updateUserById(testUuid, updateUserDataDto)).thenThrow(new DataAccessException("DB update error") {
@@ -167,7 +161,6 @@ class UserServiceTest {
                 userService.updateUserById(invalidUuidString, updateDtoNoNewEmail);
             });
             assertEquals("Invalid UUID format", exception.getMessage());
-            verify(userDao, never()).findUserByEmail(anyString());
             verify(userDao, never()).updateUserById(any(UUID.class), any(UpdateUserDataDto.class));
         }
     }
@@ -177,11 +170,11 @@ class UserServiceTest {
         FullUserInfoDto expectedUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testIdString)).thenReturn(testUuid);
-            when(userDao.findUserById(testUuid)).thenReturn(expectedUser);
+            when(userDao.loadUserById(testUuid)).thenReturn(expectedUser);
             FullUserInfoDto actualUser = userService.getUserById(testIdString);
             assertNotNull(actualUser);
             assertEquals(expectedUser, actualUser);
-            verify(userDao, times(1)).findUserById(testUuid);
+            verify(userDao, times(1)).loadUserById(testUuid);
         }
     }
 
@@ -189,10 +182,10 @@ class UserServiceTest {
     void getUserById_shouldReturnNull_whenUserNotFound() {
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testIdString)).thenReturn(testUuid);
-            when(userDao.findUserById(testUuid)).thenReturn(null);
+            when(userDao.loadUserById(testUuid)).thenReturn(null);
             FullUserInfoDto actualUser = userService.getUserById(testIdString);
             assertNull(actualUser);
-            verify(userDao, times(1)).findUserById(testUuid);
+            verify(userDao, times(1)).loadUserById(testUuid);
         }
     }
 
@@ -202,7 +195,7 @@ class UserServiceTest {
         };
         try (MockedStatic<ServiceUtil> mockedServiceUtil = Mockito.mockStatic(ServiceUtil.class)) {
             mockedServiceUtil.when(() -> ServiceUtil.convertStringToUuid(testIdString)).thenReturn(testUuid);
-            when(userDao.findUserById(testUuid)).thenThrow(daoException);
+            when(userDao.loadUserById(testUuid)).thenThrow(daoException);
             RuntimeException exception = assertThrows(RuntimeException.class, () -> {
                 userService.getUserById(testIdString);
             });
@@ -219,7 +212,7 @@ class UserServiceTest {
             assertThrows(IllegalArgumentException.class, () -> {
                 userService.getUserById(invalidId);
             });
-            verify(userDao, never()).findUserById(any(UUID.class));
+            verify(userDao, never()).loadUserById(any(UUID.class));
         }
     }
 
@@ -247,4 +240,89 @@ class UserServiceTest {
             assertEquals(daoException, exception.getCause());
         }
     }
+
+    @Test
+    void getUserById_whenCalledTwice_shouldLoadFromDaoOnce() {
+        FullUserInfoDto expectedUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        when(userDao.loadUserById(testUuid)).thenReturn(expectedUser);
+        assertEquals(expectedUser, userService.getUserById(testIdString));
+        assertEquals(expectedUser, userService.getUserById(testIdString));
+        verify(userDao, times(1)).loadUserById(testUuid);
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void getUserById_afterUpdate_shouldNotReturnStaleUser() {
+        FullUserInfoDto oldUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        FullUserInfoDto updatedUser = new FullUserInfoDto(testUuid, "updatedUserName", newTestEmail, oldUser.registrationTime(), 0);
+        UpdateUserDataDto noEmailChange = new UpdateUserDataDto("updatedUserName", null, null, 0);
+        when(userDao.loadUserById(testUuid)).thenReturn(oldUser, updatedUser);
+        when(userDao.updateUserById(testUuid, noEmailChange)).thenReturn(1);
+        assertEquals(oldUser, userService.getUserById(testIdString));
+        userService.updateUserById(testIdString, noEmailChange);
+        assertEquals(updatedUser, userService.getUserById(testIdString));
+        verify(userDao, times(2)).loadUserById(testUuid);
+    }
+
+    @Test
+    void getUserById_afterDelete_shouldReturnNull() {
+        FullUserInfoDto existingUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        when(userDao.loadUserById(testUuid)).thenReturn(existingUser, (FullUserInfoDto) null);
+        when(userDao.deleteUserById(testUuid)).thenReturn(1);
+        assertEquals(existingUser, userService.getUserById(testIdString));
+        userService.deleteUserById(testIdString);
+        assertNull(userService.getUserById(testIdString));
+    }
+
+    @Test
+    void getUserById_afterInvalidationFromAnotherNode_shouldReloadFromPrimary() {
+        FullUserInfoDto oldUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        FullUserInfoDto updatedUser = new FullUserInfoDto(testUuid, "updatedUserName", testEmail, oldUser.registrationTime(), 0);
+        when(userDao.loadUserById(testUuid)).thenReturn(oldUser, updatedUser);
+        assertEquals(oldUser, userService.getUserById(testIdString));
+        userCache.invalidate(testUuid);
+        assertEquals(updatedUser, userService.getUserById(testIdString));
+        verify(userDao, never()).findUserById(any(UUID.class));
+    }
+
+    @Test
+    void getUserById_whenCacheDisabled_shouldUseReplicaReadQuery() {
+        UserService uncached = new UserService(userDao, new UserCache(false, 100, Duration.ofMinutes(5)), idGenerator,
+                emailBloomFilter);
+        FullUserInfoDto expectedUser = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        when(userDao.findUserById(testUuid)).thenReturn(expectedUser);
+        assertEquals(expectedUser, uncached.getUserById(testIdString));
+        verify(userDao, never()).loadUserById(any(UUID.class));
+    }
+
+    @Test
+    void getUserById_whenUserNotFound_shouldNotCacheMiss() {
+        FullUserInfoDto createdLater = new FullUserInfoDto(testUuid, testUserName, testEmail, LocalDateTime.now(), 0);
+        when(userDao.loadUserById(testUuid)).thenReturn(null, createdLater);
+        assertNull(userService.getUserById(testIdString));
+        assertEquals(createdLater, userService.getUserById(testIdString));
+    }
+
+    @Test
+    void getUsersPage_shouldContinueFromCursorPosition() {
+        LocalDateTime registered = LocalDateTime.of(2025, 5, 21, 10, 0, 0);
+        FullUserInfoDto first = new FullUserInfoDto(testUuid, testUserName, testEmail, registered, 0);
+        FullUserInfoDto second = new FullUserInfoDto(UUID.randomUUID(), "second", "second@example.com", registered.plusMinutes(1), 0);
+        String cursor = PageCursor.encodeUserCursor(registered.minusDays(1), existingUserInfoDto.id());
+        when(userDao.getUsersPage(registered.minusDays(1), existingUserInfoDto.id(), 2)).thenReturn(List.of(first, second));
+        PageDto<FullUserInfoDto> page = userService.getUsersPage(cursor, 1);
+        assertEquals(List.of(first), List.copyOf(page.items()));
+        PageCursor.UserPosition next = PageCursor.decodeUserCursor(page.nextCursor());
+        assertEquals(registered, next.registrationTime());
+        assertEquals(testUuid, next.id());
+    }
+
+    @Test
+    void getUsersPage_whenLimitIsTooLarge_shouldClampIt() {
+        when(userDao.getUsersPage(null, null, PageCursor.MAX_PAGE_SIZE + 1)).thenReturn(List.of(existingUserInfoDto));
+        PageDto<FullUserInfoDto> page = userService.getUsersPage(null, Integer.MAX_VALUE);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
 }